@@ -23,6 +23,8 @@ import codecrafter47.bungeetablistplus.bukkitbridge.BukkitBridge;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class BukkitPlugin extends JavaPlugin {
+    private BukkitBridge bukkitBridge = null;
+
     @Override
     public void onEnable() {
         if (Float.parseFloat(System.getProperty("java.class.version")) < 52.0) {
@@ -30,6 +32,14 @@ public class BukkitPlugin extends JavaPlugin {
             getLogger().severe("Disabling plugin!");
             return;
         }
-        new BukkitBridge(this).onEnable();
+        bukkitBridge = new BukkitBridge(this);
+        bukkitBridge.onEnable();
+    }
+
+    @Override
+    public void onDisable() {
+        if (bukkitBridge != null) {
+            bukkitBridge.onDisable();
+        }
     }
 }
@@ -24,11 +24,16 @@ import codecrafter47.bungeetablistplus.bukkitbridge.placeholderapi.PlaceholderAP
 import codecrafter47.bungeetablistplus.common.BTLPDataKeys;
 import codecrafter47.bungeetablistplus.common.BugReportingService;
 import codecrafter47.bungeetablistplus.common.Constants;
+import codecrafter47.bungeetablistplus.common.network.BridgeInput;
+import codecrafter47.bungeetablistplus.common.network.BridgeOutput;
+import codecrafter47.bungeetablistplus.common.network.BridgeProtocol;
+import codecrafter47.bungeetablistplus.common.network.DataKeyTable;
 import codecrafter47.bungeetablistplus.data.DataAccess;
 import codecrafter47.bungeetablistplus.data.DataKey;
 import codecrafter47.bungeetablistplus.data.JoinedDataAccess;
 import codecrafter47.bungeetablistplus.data.bukkit.AbstractBukkitDataAccess;
 import codecrafter47.bungeetablistplus.data.bukkit.PlayerDataAccess;
+import codecrafter47.bungeetablistplus.data.bukkit.PlayerDataInvalidationListener;
 import codecrafter47.bungeetablistplus.data.bukkit.ServerDataAccess;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
@@ -37,6 +42,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import org.bukkit.Bukkit;
 import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -45,6 +51,7 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.event.server.PluginEnableEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.Messenger;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.ByteArrayInputStream;
@@ -54,22 +61,57 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener {
+    /**
+     * A full update is sent if more updates are left unacknowledged by the proxy.
+     */
+    /**
+     * Time in milliseconds after which an update which hasn't been acknowledged by the proxy is assumed to be lost.
+     */
+    private static final long ACKNOWLEDGEMENT_TIMEOUT = 10000;
+    /**
+     * Upper bound of the size of an entry of an {@link BridgeProtocol#UPDATE_PLAYER_DATA} message without the
+     * changed values: uuid, sequence number, flags and number of values.
+     */
+    private static final int MAX_ENTRY_HEADER_SIZE = 16 + 5 + 1 + 5;
+
     private final Plugin plugin;
 
     private ServerDataUpdateTask serverDataUpdateTask = null;
 
     private final Map<UUID, PlayerDataUpdateTask> playerInformationUpdaters = new ConcurrentHashMap<>();
 
+    /**
+     * Connections of players whose proxy understands the binary protocol.
+     */
+    private final Map<UUID, ProxyConnection> proxyConnections = new ConcurrentHashMap<>();
+
+    private final PlayerDataBatch playerDataBatch = new PlayerDataBatch();
+
+    private PlayerDataUpdateScheduler playerDataUpdateScheduler = null;
+
+    private DataCollector dataCollector = null;
+
     private DataAccess<Player> playerDataAccess;
     private DataAccess<Server> serverDataAccess;
 
@@ -116,6 +158,10 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
                 Constants.channel);
         plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin,
                 Constants.channel, (string, player, bytes) -> {
+                    if (BridgeProtocol.isBinary(bytes)) {
+                        onBinaryMessage(player, bytes);
+                        return;
+                    }
                     try {
                         ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
 
@@ -126,10 +172,21 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
                         } else if (subchannel.equals(Constants.subchannelRequestServerVariable)) {
                             DataKey<Object> dataKey = (DataKey<Object>) in.readObject();
                             this.serverDataUpdateTask.requestValue(dataKey);
+                        } else if (subchannel.equals(Constants.subchannelReleasePlayerVariable)) {
+                            DataKey<?> dataKey = (DataKey<?>) in.readObject();
+                            getPlayerDataUpdateTask(player).releaseValue(dataKey);
+                        } else if (subchannel.equals(Constants.subchannelReleaseServerVariable)) {
+                            DataKey<?> dataKey = (DataKey<?>) in.readObject();
+                            this.serverDataUpdateTask.releaseValue(dataKey);
                         } else if (subchannel.equals(Constants.subchannelRequestResetPlayerVariables)) {
                             getPlayerDataUpdateTask(player).reset();
                         } else if (subchannel.equals(Constants.subchannelRequestResetServerVariables)) {
-                            serverDataUpdateTask.reset();
+                            ProxyConnection connection = proxyConnections.get(player.getUniqueId());
+                            if (connection != null) {
+                                serverDataUpdateTask.reset(connection.proxyId);
+                            } else {
+                                serverDataUpdateTask.reset();
+                            }
                         } else if (subchannel.equals(Constants.subchannelPlaceholder)) {
                             String placeholder = in.readUTF();
                             PlaceholderAPIHook hook = this.placeholderAPIHook;
@@ -137,18 +194,33 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
                                 plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
                                     try {
                                         if (hook.isPlaceholder(player, placeholder)) {
-                                            ByteArrayOutputStream os = new ByteArrayOutputStream();
-                                            ObjectOutputStream out = new ObjectOutputStream(os);
-                                            out.writeUTF(subchannel);
-                                            out.writeUTF(placeholder);
-                                            out.close();
-                                            player.sendPluginMessage(plugin, Constants.channel, os.toByteArray());
+                                            ProxyConnection connection = proxyConnections.get(player.getUniqueId());
+                                            if (connection != null) {
+                                                BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.PLACEHOLDER);
+                                                out.writeString(placeholder);
+                                                player.sendPluginMessage(plugin, Constants.channel, out.toMessage(connection.compression));
+                                            } else {
+                                                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                                                ObjectOutputStream out = new ObjectOutputStream(os);
+                                                out.writeUTF(subchannel);
+                                                out.writeUTF(placeholder);
+                                                out.close();
+                                                player.sendPluginMessage(plugin, Constants.channel, os.toByteArray());
+                                            }
                                         }
                                     } catch (Throwable ex) {
                                         plugin.getLogger().log(Level.WARNING, "PlaceholderAPI error", ex);
                                     }
                                 });
                             }
+                        } else if (subchannel.equals(Constants.subchannelProtocolVersion)) {
+                            if (in.readInt() == BridgeProtocol.VERSION) {
+                                UUID proxyId = new UUID(in.readLong(), in.readLong());
+                                boolean compression = in.readBoolean();
+                                proxyConnections.put(player.getUniqueId(), new ProxyConnection(proxyId, compression));
+                                // the proxy starts without data for the player
+                                getPlayerDataUpdateTask(player).reset();
+                            }
                         } else {
                             plugin.getLogger().warning("Received plugin message of unknown format. Proxy/Bukkit plugin version mismatch?");
                         }
@@ -157,17 +229,46 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
                     }
                 });
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getServer().getPluginManager().registerEvents(new PlayerDataInvalidationListener(this::invalidatePlayerData), plugin);
 
         updateDataHooks();
 
+        dataCollector = new DataCollector(plugin.getLogger(), Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+        plugin.getServer().getScheduler().runTaskTimer(plugin, dataCollector::runMainThreadBatch, 1, 1);
+
+        PluginCommand statisticsCommand = plugin.getServer().getPluginCommand("btlpstats");
+        if (statisticsCommand != null) {
+            statisticsCommand.setExecutor(new DataKeyStatisticsCommand(this));
+        }
+
         // start generalInformation update task
         this.serverDataUpdateTask = new ServerDataUpdateTask();
-        this.serverDataUpdateTask.runTaskTimerAsynchronously(plugin, 0, 20);
+        plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this.serverDataUpdateTask, 0, 20);
+
+        // start player data update task
+        this.playerDataUpdateScheduler = new PlayerDataUpdateScheduler(20, TimeUnit.MILLISECONDS.toNanos(config.updateTimeBudget));
+        this.playerDataUpdateScheduler.runTaskTimerAsynchronously(plugin, 1, 1);
+        plugin.getServer().getScheduler().runTaskTimer(plugin, playerDataUpdateScheduler::flushInvalidations, 1, 1);
 
         // start update tasks for players already on the server
         plugin.getServer().getOnlinePlayers().forEach(this::getPlayerDataUpdateTask);
     }
 
+    public void onDisable() {
+        if (dataCollector != null) {
+            dataCollector.shutdown();
+        }
+    }
+
+    /**
+     * Get statistics about retrieving the data keys requested by the proxy.
+     *
+     * @return statistics by data key
+     */
+    public Map<DataKey<?>, DataKeyStatistics> getDataKeyStatistics() {
+        return dataCollector.getStatistics();
+    }
+
     private void updateDataHooks() {
         if (plugin.getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
             placeholderAPIHook = new PlaceholderAPIHook(plugin);
@@ -186,12 +287,19 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
     private PlayerDataUpdateTask getPlayerDataUpdateTask(Player player) {
         if (playerInformationUpdaters.get(player.getUniqueId()) == null) {
             PlayerDataUpdateTask playerDataUpdateTask = new PlayerDataUpdateTask(player);
-            playerDataUpdateTask.runTaskTimerAsynchronously(plugin, 0, 20);
+            playerDataUpdateScheduler.add(playerDataUpdateTask);
             playerInformationUpdaters.put(player.getUniqueId(), playerDataUpdateTask);
         }
         return playerInformationUpdaters.get(player.getUniqueId());
     }
 
+    private void invalidatePlayerData(Player player, DataKey<?> key) {
+        PlayerDataUpdateTask task = playerInformationUpdaters.get(player.getUniqueId());
+        if (task != null && task.requestedData.contains(key)) {
+            playerDataUpdateScheduler.invalidate(task, key);
+        }
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         getPlayerDataUpdateTask(event.getPlayer());
@@ -200,9 +308,10 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
     @EventHandler
     public void onPlayerLeave(PlayerQuitEvent event) {
         Player player = event.getPlayer();
+        proxyConnections.remove(player.getUniqueId());
         if (playerInformationUpdaters.containsKey(player.getUniqueId())) {
             try {
-                playerInformationUpdaters.remove(player.getUniqueId()).cancel();
+                playerDataUpdateScheduler.remove(playerInformationUpdaters.remove(player.getUniqueId()));
             } catch (Exception ex) {
                 plugin.getLogger().log(Level.SEVERE, "An exception occurred while removing a player", ex);
             }
@@ -219,6 +328,61 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
         updateDataHooks();
     }
 
+    private void onBinaryMessage(Player player, byte[] data) {
+        try {
+            BridgeInput in = new BridgeInput(data);
+            int messageType = in.readMessageHeader();
+            switch (messageType) {
+                case BridgeProtocol.ACK_PLAYER_DATA:
+                    while (in.hasRemaining()) {
+                        UUID uuid = new UUID(in.readLong(), in.readLong());
+                        int sequence = in.readVarInt();
+                        PlayerDataUpdateTask task = playerInformationUpdaters.get(uuid);
+                        if (task != null) {
+                            task.updateSequence.acknowledge(sequence);
+                        }
+                    }
+                    break;
+                case BridgeProtocol.ACK_SERVER_DATA: {
+                    int sequence = in.readVarInt();
+                    ProxyConnection connection = proxyConnections.get(player.getUniqueId());
+                    if (connection != null) {
+                        serverDataUpdateTask.acknowledge(connection.proxyId, sequence);
+                    }
+                    break;
+                }
+                default:
+                    plugin.getLogger().warning("Received plugin message of unknown type " + messageType + ". Proxy/Bukkit plugin version mismatch?");
+                    break;
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "An error occurred while handling an incoming plugin message", ex);
+        }
+    }
+
+    private void sendServerData(ProxyConnection connection, Player player, int sequence, boolean fullUpdate, Map<DataKey<?>, Object> delta) {
+        try {
+            DataKeyTable keyTable = connection.keyTable;
+            BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_SERVER_DATA);
+            out.writeVarInt(sequence);
+            out.writeByte(fullUpdate ? BridgeProtocol.FLAG_FULL_UPDATE : 0);
+            out.writeVarInt(delta.size());
+            synchronized (keyTable) {
+                BridgeOutput keyIds = keyTable.assignIds(delta.keySet());
+                if (keyIds != null) {
+                    player.sendPluginMessage(plugin, Constants.channel, keyIds.toMessage(connection.compression));
+                }
+                for (Map.Entry<DataKey<?>, Object> entry : delta.entrySet()) {
+                    keyTable.writeKey(out, entry.getKey());
+                    out.writeValue(entry.getValue());
+                }
+                player.sendPluginMessage(plugin, Constants.channel, out.toMessage(connection.compression));
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, null, ex);
+        }
+    }
+
     protected void sendInformation(String subchannel, Map<DataKey<?>, Object> delta, Player player) {
         try {
             ByteArrayOutputStream os = new ByteArrayOutputStream();
@@ -287,7 +451,7 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
 
     private class ThirdPartyVariablesAccess extends AbstractBukkitDataAccess<Player> {
         public ThirdPartyVariablesAccess() {
-            super(plugin.getLogger(), plugin);
+            super(plugin.getLogger());
             bind(BTLPDataKeys.ThirdPartyVariableDataKey.class, this::resolveVariable);
         }
 
@@ -313,7 +477,7 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
 
     private class BTLPServerDataKeyAccess extends AbstractBukkitDataAccess<Server> {
         public BTLPServerDataKeyAccess() {
-            super(plugin.getLogger(), plugin);
+            super(plugin.getLogger());
             bind(BTLPDataKeys.REGISTERED_THIRD_PARTY_VARIABLES, server -> {
                 apiLock.readLock().lock();
                 try {
@@ -326,16 +490,85 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
         }
     }
 
-    public abstract class DataUpdateTask<B> extends BukkitRunnable {
+    public abstract class DataUpdateTask<B> implements Runnable {
         Map<DataKey<?>, Object> sentData = new ConcurrentHashMap<>();
-        ImmutableSet<DataKey<?>> requestedData = ImmutableSet.of();
+        final Set<DataKey<?>> requestedData = ConcurrentHashMap.newKeySet();
         boolean requestedReset = true;
+        /**
+         * Set while an update is running, including the wait for values which have to be retrieved on
+         * the main thread. Updates started in the meantime are skipped.
+         */
+        final AtomicBoolean updateInProgress = new AtomicBoolean(false);
+        /**
+         * Whether the last computed delta contains all data.
+         */
+        boolean fullUpdate = false;
+        /**
+         * Decides which of the requested keys are retrieved. Keys whose value doesn't change are retrieved less often.
+         */
+        final KeySampler sampler = new KeySampler();
+        /**
+         * Keys whose changes are reported by Bukkit events. They are only polled as a fallback.
+         */
+        Set<DataKey<?>> eventDrivenKeys = ImmutableSet.of();
 
-        protected final void update(Player player, DataAccess<B> dataAccess, B boundType, String subchannel) {
-            Map<DataKey<?>, Object> newData = new ConcurrentHashMap<>();
-            requestedData.parallelStream().forEach(value -> {
-                dataAccess.getValue(value, boundType).ifPresent(data -> newData.put(value, data));
+        /**
+         * Retrieve the requested data and compute the changes since the last update.
+         *
+         * @param invalidatedOnly whether to only retrieve the invalidated keys instead of the keys which are due
+         * @param deltaConsumer   receives the changes, possibly asynchronously after values which are not
+         *                        thread safe have been retrieved on the main thread
+         */
+        protected final void update(DataAccess<B> dataAccess, B boundType, boolean invalidatedOnly, Consumer<Map<DataKey<?>, Object>> deltaConsumer) {
+            if (!updateInProgress.compareAndSet(false, true)) {
+                return;
+            }
+            if (isResyncRequired()) {
+                // updates got lost, send everything again
+                requestedReset = true;
+            }
+            List<DataKey<?>> keys = sampler.select(requestedData, requestedReset, invalidatedOnly);
+            if (keys.isEmpty() && invalidatedOnly) {
+                updateInProgress.set(false);
+                return;
+            }
+            dataCollector.collect(dataAccess, boundType, keys, newData -> {
+                try {
+                    updateSampling(keys, newData);
+                    deltaConsumer.accept(computeDelta(newData));
+                } finally {
+                    updateInProgress.set(false);
+                }
             });
+        }
+
+        /**
+         * Adjust the sampling intervals of the sampled keys and fill in the last values of the keys which
+         * haven't been sampled.
+         */
+        private void updateSampling(List<DataKey<?>> sampledKeys, Map<DataKey<?>, Object> newData) {
+            for (DataKey<?> key : sampledKeys) {
+                boolean changed = !Objects.equals(newData.get(key), sentData.get(key));
+                if (eventDrivenKeys.contains(key)) {
+                    sampler.sampledFixed(key, config.eventSamplingInterval);
+                } else {
+                    sampler.sampled(key, changed, config.maxSamplingInterval);
+                }
+                if (changed) {
+                    dataCollector.recordChange(key);
+                }
+            }
+            if (sampledKeys.size() != requestedData.size()) {
+                Set<DataKey<?>> sampled = new HashSet<>(sampledKeys);
+                for (Map.Entry<DataKey<?>, Object> entry : sentData.entrySet()) {
+                    if (!sampled.contains(entry.getKey()) && requestedData.contains(entry.getKey())) {
+                        newData.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+
+        private Map<DataKey<?>, Object> computeDelta(Map<DataKey<?>, Object> newData) {
             Map<DataKey<?>, Object> delta = new HashMap<>();
             for (Map.Entry<DataKey<?>, Object> entry : sentData.entrySet()) {
                 if (!newData.containsKey(entry.getKey())) {
@@ -350,50 +583,485 @@ public class BukkitBridge extends BungeeTabListPlusBukkitAPI implements Listener
                 }
             }
 
-            if (!delta.isEmpty()) {
-                sendInformation(subchannel, delta, player);
-            }
             sentData = newData;
+            fullUpdate = requestedReset;
 
             if (requestedReset) {
                 requestedReset = false;
             }
+            return delta;
         }
 
         public void requestValue(DataKey<?> dataKey) {
-            if (!requestedData.contains(dataKey)) {
-                requestedData = ImmutableSet.<DataKey<?>>builder().addAll(requestedData).add(dataKey).build();
-            }
+            requestedData.add(dataKey);
+        }
+
+        /**
+         * Stop retrieving a value. The next update tells the proxy that the value has been removed.
+         */
+        public void releaseValue(DataKey<?> dataKey) {
+            requestedData.remove(dataKey);
         }
 
         public void reset() {
             requestedReset = true;
         }
+
+        /**
+         * Whether the proxy may have lost updates, in which case the next update contains all data.
+         */
+        protected boolean isResyncRequired() {
+            return false;
+        }
     }
 
     public class ServerDataUpdateTask extends DataUpdateTask<Server> {
+        /**
+         * Update sequence by proxy id. Server data is sent through any player connected to a proxy, so the
+         * sequence belongs to the proxy instead of the player. A proxy without a sequence gets a full update.
+         */
+        private final Map<UUID, UpdateSequence> proxies = new ConcurrentHashMap<>();
 
         @Override
         public void run() {
-            plugin.getServer().getOnlinePlayers().stream().findAny().ifPresent(player -> {
-                update(player, serverDataAccess, plugin.getServer(), Constants.subchannelUpdateServer);
-                sendHash(Constants.subchannelServerHash, sentData.hashCode(), player);
+            // one player per proxy carries the data
+            Map<UUID, Player> carriers = new HashMap<>();
+            Player legacyCarrier = null;
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                ProxyConnection connection = proxyConnections.get(player.getUniqueId());
+                if (connection != null) {
+                    carriers.putIfAbsent(connection.proxyId, player);
+                } else if (legacyCarrier == null) {
+                    legacyCarrier = player;
+                }
+            }
+            if (carriers.isEmpty() && legacyCarrier == null) {
+                return;
+            }
+            Player legacyPlayer = legacyCarrier;
+            update(serverDataAccess, plugin.getServer(), false, delta -> {
+                proxies.keySet().retainAll(carriers.keySet());
+                for (Map.Entry<UUID, Player> entry : carriers.entrySet()) {
+                    Player player = entry.getValue();
+                    ProxyConnection connection = proxyConnections.get(player.getUniqueId());
+                    if (connection == null || !connection.proxyId.equals(entry.getKey())) {
+                        continue;
+                    }
+                    UpdateSequence sequence = proxies.get(entry.getKey());
+                    boolean full = fullUpdate;
+                    if (sequence == null) {
+                        sequence = new UpdateSequence();
+                        proxies.put(entry.getKey(), sequence);
+                        full = true;
+                    } else if (sequence.expire(ACKNOWLEDGEMENT_TIMEOUT)) {
+                        // updates got lost, send everything again
+                        full = true;
+                    }
+                    if (full) {
+                        sendServerData(connection, player, sequence.next(), true, sentData);
+                    } else if (!delta.isEmpty()) {
+                        sendServerData(connection, player, sequence.next(), false, delta);
+                    }
+                }
+                if (legacyPlayer != null) {
+                    if (!delta.isEmpty()) {
+                        sendInformation(Constants.subchannelUpdateServer, delta, legacyPlayer);
+                    }
+                    sendHash(Constants.subchannelServerHash, sentData.hashCode(), legacyPlayer);
+                }
             });
         }
 
+        /**
+         * Send all data to the given proxy with the next update.
+         */
+        public void reset(UUID proxyId) {
+            proxies.remove(proxyId);
+        }
+
+        public void acknowledge(UUID proxyId, int sequence) {
+            UpdateSequence updateSequence = proxies.get(proxyId);
+            if (updateSequence != null) {
+                updateSequence.acknowledge(sequence);
+            }
+        }
     }
 
     public class PlayerDataUpdateTask extends DataUpdateTask<Player> {
         private final Player player;
+        private int slot = -1;
+        /**
+         * Whether the task is queued to retrieve its invalidated keys.
+         */
+        private final AtomicBoolean invalidationQueued = new AtomicBoolean(false);
+        private final UpdateSequence updateSequence = new UpdateSequence();
 
         public PlayerDataUpdateTask(Player player) {
             this.player = player;
+            this.eventDrivenKeys = PlayerDataInvalidationListener.INVALIDATED_KEYS;
+        }
+
+        @Override
+        public void run() {
+            update(false);
+        }
+
+        private void runInvalidated() {
+            update(true);
+        }
+
+        @Override
+        protected boolean isResyncRequired() {
+            return updateSequence.expire(ACKNOWLEDGEMENT_TIMEOUT);
+        }
+
+        private void update(boolean invalidatedOnly) {
+            update(playerDataAccess, player, invalidatedOnly, delta -> {
+                if (!player.isOnline()) {
+                    return;
+                }
+                ProxyConnection connection = proxyConnections.get(player.getUniqueId());
+                if (connection != null) {
+                    if (!delta.isEmpty() || fullUpdate) {
+                        playerDataBatch.add(new PlayerDataUpdate(this, connection, fullUpdate, delta));
+                    }
+                } else {
+                    if (!delta.isEmpty()) {
+                        sendInformation(Constants.subchannelUpdatePlayer, delta, player);
+                    }
+                    sendHash(Constants.subchannelPlayerHash, sentData.hashCode(), player);
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the {@link PlayerDataUpdateTask}s. The tasks are kept in a ring, each tick processes the next
+     * slice of it so every player is updated once per period. Players are added and removed in constant time.
+     * <p>
+     * If a tick exceeds its time budget it stops early, and the next tick continues where it stopped.
+     * <p>
+     * Keys invalidated by Bukkit events are retrieved on the next tick, independent of the ring.
+     */
+    public class PlayerDataUpdateScheduler extends BukkitRunnable {
+        private final int period;
+        private final long timeBudget;
+        private final List<PlayerDataUpdateTask> ring = new ArrayList<>();
+        private int cursor = 0;
+        /**
+         * Invalidations reported during the current tick. Only accessed from the main thread.
+         */
+        private final Map<PlayerDataUpdateTask, Set<DataKey<?>>> pendingInvalidations = new HashMap<>();
+        private final Queue<PlayerDataUpdateTask> invalidatedTasks = new ConcurrentLinkedQueue<>();
+        /**
+         * Set while a run is in progress. The task is repeated asynchronously every tick, so a run which
+         * takes longer than a tick would otherwise overlap with the next one.
+         */
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        /**
+         * @param period     the number of ticks in which every task is run once
+         * @param timeBudget time budget per tick in nanoseconds
+         */
+        public PlayerDataUpdateScheduler(int period, long timeBudget) {
+            this.period = period;
+            this.timeBudget = timeBudget;
+        }
+
+        public synchronized void add(PlayerDataUpdateTask task) {
+            Preconditions.checkArgument(task.slot == -1, "task already scheduled");
+            task.slot = ring.size();
+            ring.add(task);
+        }
+
+        public synchronized void remove(PlayerDataUpdateTask task) {
+            if (task.slot == -1) {
+                return;
+            }
+            PlayerDataUpdateTask last = ring.remove(ring.size() - 1);
+            if (last != task) {
+                ring.set(task.slot, last);
+                last.slot = task.slot;
+            }
+            task.slot = -1;
+        }
+
+        /**
+         * Invalidate a key of a player. Must be called from the main thread.
+         */
+        public void invalidate(PlayerDataUpdateTask task, DataKey<?> key) {
+            pendingInvalidations.computeIfAbsent(task, t -> new HashSet<>()).add(key);
+        }
+
+        /**
+         * Hand the invalidations of the previous tick over to the update thread. Must be called from the
+         * main thread. Events are fired before their change is applied, so invalidations are delayed until
+         * the tick which reported them is over.
+         */
+        public void flushInvalidations() {
+            if (pendingInvalidations.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<PlayerDataUpdateTask, Set<DataKey<?>>> entry : pendingInvalidations.entrySet()) {
+                PlayerDataUpdateTask task = entry.getKey();
+                task.sampler.invalidate(entry.getValue());
+                if (task.invalidationQueued.compareAndSet(false, true)) {
+                    invalidatedTasks.add(task);
+                }
+            }
+            pendingInvalidations.clear();
+        }
+
+        private synchronized PlayerDataUpdateTask next() {
+            if (ring.isEmpty()) {
+                return null;
+            }
+            if (cursor >= ring.size()) {
+                cursor = 0;
+            }
+            return ring.get(cursor++);
         }
 
         @Override
         public void run() {
-            update(player, playerDataAccess, player, Constants.subchannelUpdatePlayer);
-            sendHash(Constants.subchannelPlayerHash, sentData.hashCode(), player);
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                runSlice();
+            } finally {
+                running.set(false);
+            }
+        }
+
+        private void runSlice() {
+            long start = System.nanoTime();
+            int slice;
+            synchronized (this) {
+                slice = (ring.size() + period - 1) / period;
+            }
+            for (int i = 0; i < slice; i++) {
+                PlayerDataUpdateTask task = next();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Throwable th) {
+                    plugin.getLogger().log(Level.SEVERE, "Unexpected exception while updating player data", th);
+                }
+                if (System.nanoTime() - start >= timeBudget) {
+                    break;
+                }
+            }
+            PlayerDataUpdateTask task;
+            while (null != (task = invalidatedTasks.poll())) {
+                task.invalidationQueued.set(false);
+                try {
+                    task.runInvalidated();
+                } catch (Throwable th) {
+                    plugin.getLogger().log(Level.SEVERE, "Unexpected exception while updating player data", th);
+                }
+            }
+            playerDataBatch.flush();
+        }
+    }
+
+    /**
+     * Collects the player data updates of a tick and sends them bundled by proxy, so a server sends one
+     * message per tick and proxy instead of two messages per player and second.
+     */
+    private class PlayerDataBatch {
+        private final Queue<PlayerDataUpdate> queue = new ConcurrentLinkedQueue<>();
+
+        void add(PlayerDataUpdate update) {
+            queue.add(update);
+        }
+
+        void flush() {
+            if (queue.isEmpty()) {
+                return;
+            }
+            Map<UUID, List<PlayerDataUpdate>> updatesByProxy = new HashMap<>();
+            PlayerDataUpdate update;
+            while (null != (update = queue.poll())) {
+                updatesByProxy.computeIfAbsent(update.connection.proxyId, id -> new ArrayList<>()).add(update);
+            }
+            for (Map.Entry<UUID, List<PlayerDataUpdate>> entry : updatesByProxy.entrySet()) {
+                try {
+                    send(entry.getValue());
+                } catch (Throwable th) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to send player data to proxy " + entry.getKey(), th);
+                }
+            }
+        }
+
+        private void send(List<PlayerDataUpdate> updates) {
+            // any player connected through the proxy can carry the message
+            PlayerDataUpdate carrier = null;
+            for (PlayerDataUpdate update : updates) {
+                if (update.task.player.isOnline() && proxyConnections.get(update.task.player.getUniqueId()) == update.connection) {
+                    carrier = update;
+                    break;
+                }
+            }
+            if (carrier == null) {
+                return;
+            }
+            Player player = carrier.task.player;
+            ProxyConnection connection = carrier.connection;
+            DataKeyTable keyTable = connection.keyTable;
+
+            synchronized (keyTable) {
+                Set<DataKey<?>> keys = new HashSet<>();
+                for (PlayerDataUpdate update : updates) {
+                    keys.addAll(update.delta.keySet());
+                }
+                BridgeOutput keyIds = keyTable.assignIds(keys);
+                if (keyIds != null) {
+                    player.sendPluginMessage(plugin, Constants.channel, keyIds.toMessage(connection.compression));
+                }
+
+                BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_PLAYER_DATA);
+                int headerSize = out.size();
+                int maxPartSize = Messenger.MAX_MESSAGE_SIZE - headerSize - MAX_ENTRY_HEADER_SIZE;
+                for (PlayerDataUpdate update : updates) {
+                    List<DeltaPart> parts = encodeDelta(keyTable, update.delta, maxPartSize);
+                    for (int i = 0; i < parts.size(); i++) {
+                        DeltaPart part = parts.get(i);
+                        BridgeOutput entry = new BridgeOutput();
+                        UUID uuid = update.task.player.getUniqueId();
+                        entry.writeLong(uuid.getMostSignificantBits());
+                        entry.writeLong(uuid.getLeastSignificantBits());
+                        // sequence numbers are assigned here, so an update split into several entries uses consecutive ones
+                        entry.writeVarInt(update.task.updateSequence.next());
+                        entry.writeByte(i == 0 && update.fullUpdate ? BridgeProtocol.FLAG_FULL_UPDATE : 0);
+                        entry.writeVarInt(part.count);
+                        byte[] data = part.data.toByteArray();
+                        entry.writeBytes(data, 0, data.length);
+                        // split messages before exceeding the plugin message size limit
+                        if (out.size() > headerSize && out.size() + entry.size() > Messenger.MAX_MESSAGE_SIZE) {
+                            player.sendPluginMessage(plugin, Constants.channel, out.toMessage(connection.compression));
+                            out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_PLAYER_DATA);
+                        }
+                        byte[] bytes = entry.toByteArray();
+                        out.writeBytes(bytes, 0, bytes.length);
+                    }
+                }
+                if (out.size() > headerSize) {
+                    player.sendPluginMessage(plugin, Constants.channel, out.toMessage(connection.compression));
+                }
+            }
+        }
+
+        /**
+         * Encode the changed values, split into parts which fit into a single message. The first part carries
+         * the full update flag, the following parts are applied on top of it. A value which is too large for a
+         * message on its own can't be sent and is skipped.
+         */
+        private List<DeltaPart> encodeDelta(DataKeyTable keyTable, Map<DataKey<?>, Object> delta, int maxPartSize) {
+            List<DeltaPart> parts = new ArrayList<>();
+            DeltaPart part = new DeltaPart();
+            parts.add(part);
+            for (Map.Entry<DataKey<?>, Object> e : delta.entrySet()) {
+                BridgeOutput value = new BridgeOutput();
+                try {
+                    keyTable.writeKey(value, e.getKey());
+                    value.writeValue(e.getValue());
+                } catch (IOException ex) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to encode the value of " + e.getKey(), ex);
+                    continue;
+                }
+                if (value.size() > maxPartSize) {
+                    plugin.getLogger().warning("The value of " + e.getKey() + " exceeds the plugin message size limit and is not sent");
+                    continue;
+                }
+                if (part.count > 0 && part.data.size() + value.size() > maxPartSize) {
+                    part = new DeltaPart();
+                    parts.add(part);
+                }
+                byte[] bytes = value.toByteArray();
+                part.data.writeBytes(bytes, 0, bytes.length);
+                part.count++;
+            }
+            return parts;
+        }
+    }
+
+    private static class DeltaPart {
+        private final BridgeOutput data = new BridgeOutput();
+        private int count = 0;
+    }
+
+    private static class PlayerDataUpdate {
+        private final PlayerDataUpdateTask task;
+        private final ProxyConnection connection;
+        private final boolean fullUpdate;
+        private final Map<DataKey<?>, Object> delta;
+
+        private PlayerDataUpdate(PlayerDataUpdateTask task, ProxyConnection connection, boolean fullUpdate, Map<DataKey<?>, Object> delta) {
+            this.task = task;
+            this.connection = connection;
+            this.fullUpdate = fullUpdate;
+            this.delta = delta;
+        }
+    }
+
+    /**
+     * Sequence numbers of the updates sent to a proxy using the binary protocol, and their acknowledgement.
+     */
+    private static class UpdateSequence {
+        private int sequence = 0;
+        private int acknowledgedSequence = 0;
+        /**
+         * Sequence number and send time of the unacknowledged updates, oldest first.
+         */
+        private final Deque<long[]> unacknowledged = new ArrayDeque<>();
+
+        synchronized int next() {
+            sequence++;
+            unacknowledged.add(new long[]{sequence, System.currentTimeMillis()});
+            return sequence;
+        }
+
+        synchronized void acknowledge(int sequence) {
+            if (sequence > acknowledgedSequence && sequence <= this.sequence) {
+                acknowledgedSequence = sequence;
+                while (!unacknowledged.isEmpty() && unacknowledged.peekFirst()[0] <= sequence) {
+                    unacknowledged.pollFirst();
+                }
+            }
+        }
+
+        /**
+         * Give up on the unacknowledged updates if the oldest of them has been sent longer than the timeout ago.
+         * A slow proxy acknowledges late but in order, so only its age counts, not the number of updates in flight.
+         *
+         * @param timeout the timeout in milliseconds
+         * @return whether the updates have been given up and all data has to be sent again
+         */
+        synchronized boolean expire(long timeout) {
+            long[] oldest = unacknowledged.peekFirst();
+            if (oldest != null && System.currentTimeMillis() - oldest[1] > timeout) {
+                acknowledgedSequence = sequence;
+                unacknowledged.clear();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Binary protocol state of a player's connection to the proxy.
+     */
+    private static class ProxyConnection {
+        private final UUID proxyId;
+        private final boolean compression;
+        private final DataKeyTable keyTable = new DataKeyTable();
+
+        private ProxyConnection(UUID proxyId, boolean compression) {
+            this.proxyId = proxyId;
+            this.compression = compression;
         }
     }
 }
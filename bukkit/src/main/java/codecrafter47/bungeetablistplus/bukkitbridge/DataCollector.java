@@ -0,0 +1,254 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.bukkitbridge;
+
+import codecrafter47.bungeetablistplus.data.DataAccess;
+import codecrafter47.bungeetablistplus.data.DataKey;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Evaluates the data keys requested by the proxy.
+ * <p>
+ * Small key sets are evaluated sequentially on the calling thread. Larger ones are split into chunks which
+ * are evaluated on a dedicated thread pool, so the bridge doesn't compete with other plugins for the common
+ * fork join pool. The pool is bounded; if its queue is full the calling thread evaluates the chunk itself.
+ * <p>
+ * Keys which are not {@link DataAccess#isThreadSafe(DataKey) thread safe} are queued instead. The queue is
+ * processed on the main thread by {@link #runMainThreadBatch()} once per tick, for all pending requests at
+ * once. Afterwards the results are handed back to the thread pool, so no thread ever blocks waiting for the
+ * main thread.
+ * <p>
+ * The time spent on each key is recorded, together with how often its value changes, see {@link #getStatistics()}.
+ */
+class DataCollector {
+
+    /**
+     * Key sets smaller than this are evaluated sequentially.
+     */
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    private static final long SLOW_KEY_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Logger logger;
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final Map<DataKey<?>, KeyStats> stats = new ConcurrentHashMap<>();
+    private final Queue<MainThreadRequest<?>> mainThreadRequests = new ConcurrentLinkedQueue<>();
+
+    DataCollector(Logger logger, int parallelism) {
+        this.logger = logger;
+        this.parallelism = parallelism;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * 64),
+                new ThreadFactoryBuilder().setNameFormat("BungeeTabListPlus Data Collector #%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Evaluate the given keys.
+     * <p>
+     * If all keys are thread safe the callback is invoked before this method returns. Otherwise it is
+     * invoked on a pool thread after the next main thread batch.
+     *
+     * @param dataAccess the data access
+     * @param context    the player or server
+     * @param keys       the keys
+     * @param callback   receives the values of all keys for which a value is present
+     */
+    <B> void collect(DataAccess<B> dataAccess, B context, Collection<DataKey<?>> keys, Consumer<Map<DataKey<?>, Object>> callback) {
+        List<DataKey<?>> threadSafeKeys = new ArrayList<>(keys.size());
+        List<DataKey<?>> mainThreadKeys = null;
+        for (DataKey<?> key : keys) {
+            if (dataAccess.isThreadSafe(key)) {
+                threadSafeKeys.add(key);
+            } else {
+                if (mainThreadKeys == null) {
+                    mainThreadKeys = new ArrayList<>();
+                }
+                mainThreadKeys.add(key);
+            }
+        }
+        Map<DataKey<?>, Object> result = collectAll(dataAccess, context, threadSafeKeys);
+        if (mainThreadKeys == null) {
+            callback.accept(result);
+        } else {
+            mainThreadRequests.add(new MainThreadRequest<>(dataAccess, context, mainThreadKeys, result, callback));
+        }
+    }
+
+    /**
+     * Evaluate the keys queued by {@link #collect(DataAccess, Object, Collection, Consumer)} which are not thread
+     * safe. Must be called on the main thread.
+     */
+    void runMainThreadBatch() {
+        if (mainThreadRequests.isEmpty()) {
+            return;
+        }
+        List<MainThreadRequest<?>> completed = new ArrayList<>();
+        MainThreadRequest<?> request;
+        while (null != (request = mainThreadRequests.poll())) {
+            request.collect();
+            completed.add(request);
+        }
+        executor.execute(() -> {
+            for (MainThreadRequest<?> r : completed) {
+                try {
+                    r.callback.accept(r.result);
+                } catch (Throwable th) {
+                    logger.log(Level.SEVERE, "Unexpected exception while collecting data", th);
+                }
+            }
+        });
+    }
+
+    private <B> Map<DataKey<?>, Object> collectAll(DataAccess<B> dataAccess, B context, Collection<DataKey<?>> keys) {
+        Map<DataKey<?>, Object> result = new HashMap<>();
+        if (keys.size() < PARALLEL_THRESHOLD || parallelism <= 1) {
+            collectSequential(dataAccess, context, keys, result);
+            return result;
+        }
+
+        List<List<DataKey<?>>> chunks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            chunks.add(new ArrayList<>(keys.size() / parallelism + 1));
+        }
+        int i = 0;
+        for (DataKey<?> key : keys) {
+            chunks.get(i++ % parallelism).add(key);
+        }
+
+        // the calling thread takes the first chunk
+        List<Future<Map<DataKey<?>, Object>>> futures = new ArrayList<>(parallelism - 1);
+        for (List<DataKey<?>> chunk : chunks.subList(1, chunks.size())) {
+            futures.add(executor.submit(() -> {
+                Map<DataKey<?>, Object> values = new HashMap<>();
+                collectSequential(dataAccess, context, chunk, values);
+                return values;
+            }));
+        }
+        collectSequential(dataAccess, context, chunks.get(0), result);
+        for (Future<Map<DataKey<?>, Object>> future : futures) {
+            try {
+                result.putAll(future.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                logger.log(Level.SEVERE, "Unexpected exception while collecting data", ex.getCause());
+            }
+        }
+        return result;
+    }
+
+    private <B> void collectSequential(DataAccess<B> dataAccess, B context, Collection<DataKey<?>> keys, Map<DataKey<?>, Object> result) {
+        for (DataKey<?> key : keys) {
+            long start = System.nanoTime();
+            Object value = dataAccess.getValue(key, context).orElse(null);
+            record(key, System.nanoTime() - start);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+    }
+
+    private void record(DataKey<?> key, long nanos) {
+        KeyStats stats = this.stats.computeIfAbsent(key, k -> new KeyStats());
+        stats.count.increment();
+        stats.totalNanos.add(nanos);
+        if (nanos > SLOW_KEY_THRESHOLD && !stats.reportedSlow) {
+            stats.reportedSlow = true;
+            logger.warning("Retrieving " + key + " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+        }
+    }
+
+    /**
+     * Record that a value retrieved for the key differed from the previous one.
+     */
+    void recordChange(DataKey<?> key) {
+        stats.computeIfAbsent(key, k -> new KeyStats()).changes.increment();
+    }
+
+    Map<DataKey<?>, DataKeyStatistics> getStatistics() {
+        ImmutableMap.Builder<DataKey<?>, DataKeyStatistics> builder = ImmutableMap.builder();
+        stats.forEach((key, stats) -> {
+            long count = stats.count.sum();
+            if (count > 0) {
+                builder.put(key, new DataKeyStatistics(count, stats.changes.sum(), stats.totalNanos.sum() / count));
+            }
+        });
+        return builder.build();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private class MainThreadRequest<B> {
+        private final DataAccess<B> dataAccess;
+        private final B context;
+        private final List<DataKey<?>> keys;
+        private final Map<DataKey<?>, Object> result;
+        private final Consumer<Map<DataKey<?>, Object>> callback;
+
+        private MainThreadRequest(DataAccess<B> dataAccess, B context, List<DataKey<?>> keys, Map<DataKey<?>, Object> result, Consumer<Map<DataKey<?>, Object>> callback) {
+            this.dataAccess = dataAccess;
+            this.context = context;
+            this.keys = keys;
+            this.result = result;
+            this.callback = callback;
+        }
+
+        private void collect() {
+            try {
+                collectSequential(dataAccess, context, keys, result);
+            } catch (Throwable th) {
+                logger.log(Level.SEVERE, "Unexpected exception while collecting data", th);
+            }
+        }
+    }
+
+    private static class KeyStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder changes = new LongAdder();
+        private volatile boolean reportedSlow = false;
+    }
+}
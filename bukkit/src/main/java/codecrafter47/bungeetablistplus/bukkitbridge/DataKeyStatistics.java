@@ -0,0 +1,62 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.bukkitbridge;
+
+/**
+ * Statistics about retrieving the value of a data key for the proxy.
+ */
+public final class DataKeyStatistics {
+    private final long samples;
+    private final long changes;
+    private final long averageTime;
+
+    DataKeyStatistics(long samples, long changes, long averageTime) {
+        this.samples = samples;
+        this.changes = changes;
+        this.averageTime = averageTime;
+    }
+
+    /**
+     * @return how often the value has been retrieved
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return how often a retrieved value differed from the previous one
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the average time in nanoseconds spent retrieving the value
+     */
+    public long getAverageTime() {
+        return averageTime;
+    }
+
+    @Override
+    public String toString() {
+        return "DataKeyStatistics{samples=" + samples + ", changes=" + changes + ", averageTime=" + averageTime + "ns}";
+    }
+}
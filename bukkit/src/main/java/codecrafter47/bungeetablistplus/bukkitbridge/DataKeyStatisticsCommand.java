@@ -0,0 +1,79 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.bukkitbridge;
+
+import codecrafter47.bungeetablistplus.data.DataKey;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the data keys requested by the proxy which took the most time to retrieve.
+ */
+class DataKeyStatisticsCommand implements CommandExecutor {
+    private static final int DEFAULT_LINES = 10;
+
+    private final BukkitBridge bukkitBridge;
+
+    DataKeyStatisticsCommand(BukkitBridge bukkitBridge) {
+        this.bukkitBridge = bukkitBridge;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        int lines = DEFAULT_LINES;
+        if (args.length == 1) {
+            try {
+                lines = Integer.parseInt(args[0]);
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        } else if (args.length > 1) {
+            return false;
+        }
+        if (lines < 1) {
+            return false;
+        }
+
+        List<Map.Entry<DataKey<?>, DataKeyStatistics>> entries = new ArrayList<>(bukkitBridge.getDataKeyStatistics().entrySet());
+        if (entries.isEmpty()) {
+            sender.sendMessage(ChatColor.GOLD + "No data has been retrieved for the proxy yet.");
+            return true;
+        }
+        entries.sort(Comparator.comparingLong((Map.Entry<DataKey<?>, DataKeyStatistics> entry) -> entry.getValue().getSamples() * entry.getValue().getAverageTime()).reversed());
+
+        sender.sendMessage(ChatColor.GOLD + "Data retrieved for the proxy, by total time:");
+        for (Map.Entry<DataKey<?>, DataKeyStatistics> entry : entries.subList(0, Math.min(lines, entries.size()))) {
+            DataKeyStatistics statistics = entry.getValue();
+            sender.sendMessage(ChatColor.YELLOW + entry.getKey().getId() + ChatColor.WHITE + ": "
+                    + statistics.getSamples() + " samples, "
+                    + statistics.getChanges() + " changes, "
+                    + String.format("%.3f", statistics.getAverageTime() / 1000000.0) + "ms average");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.bukkitbridge;
+
+import codecrafter47.bungeetablistplus.data.DataKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which of the requested data keys are retrieved by an update. The sampling interval of a key doubles
+ * whenever its value didn't change, up to a maximum, and drops back to 1 as soon as it changes. Invalidated keys
+ * are always retrieved by the next update.
+ * <p>
+ * Apart from {@link #invalidate(Collection)} the methods must not be called concurrently.
+ */
+final class KeySampler {
+    private final Map<DataKey<?>, Sampling> sampling = new HashMap<>();
+    /**
+     * Keys which have been reported as changed since they have last been retrieved.
+     */
+    private final Set<DataKey<?>> invalidatedKeys = ConcurrentHashMap.newKeySet();
+
+    void invalidate(Collection<DataKey<?>> keys) {
+        invalidatedKeys.addAll(keys);
+    }
+
+    /**
+     * Select the keys to retrieve in an update.
+     *
+     * @param requestedKeys   the keys requested by the proxy
+     * @param all             whether to select all requested keys
+     * @param invalidatedOnly whether to only select the invalidated keys instead of the keys which are due
+     * @return the selected keys
+     */
+    List<DataKey<?>> select(Set<DataKey<?>> requestedKeys, boolean all, boolean invalidatedOnly) {
+        List<DataKey<?>> keys = new ArrayList<>(requestedKeys.size());
+        for (DataKey<?> key : requestedKeys) {
+            Sampling state = sampling.computeIfAbsent(key, k -> new Sampling());
+            boolean invalidated = invalidatedKeys.remove(key);
+            if (all || invalidated || (!invalidatedOnly && --state.countdown <= 0)) {
+                keys.add(key);
+            }
+        }
+        if (sampling.size() > requestedKeys.size()) {
+            // some keys have been released
+            sampling.keySet().retainAll(requestedKeys);
+        }
+        return keys;
+    }
+
+    /**
+     * Adjust the sampling interval of a selected key after its value has been retrieved.
+     *
+     * @param key         the key
+     * @param changed     whether the value differs from the previous one
+     * @param maxInterval the largest interval
+     */
+    void sampled(DataKey<?> key, boolean changed, int maxInterval) {
+        Sampling state = sampling.get(key);
+        if (state != null) {
+            state.interval = changed ? 1 : Math.min(state.interval * 2, maxInterval);
+            state.countdown = state.interval;
+        }
+    }
+
+    /**
+     * Set a fixed sampling interval for a selected key after its value has been retrieved.
+     *
+     * @param key      the key
+     * @param interval the interval
+     */
+    void sampledFixed(DataKey<?> key, int interval) {
+        Sampling state = sampling.get(key);
+        if (state != null) {
+            state.interval = interval;
+            state.countdown = interval;
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return the number of updates between two samples of the key
+     */
+    int getInterval(DataKey<?> key) {
+        Sampling state = sampling.get(key);
+        return state != null ? state.interval : 1;
+    }
+
+    private static class Sampling {
+        /**
+         * Number of updates between two samples.
+         */
+        private int interval = 1;
+        /**
+         * Number of updates until the next sample.
+         */
+        private int countdown = 0;
+    }
+}
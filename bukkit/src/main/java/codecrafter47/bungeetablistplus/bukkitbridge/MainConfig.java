@@ -27,9 +27,24 @@ public class MainConfig extends Configuration {
 
     public boolean automaticallySendBugReports = true;
 
+    public int updateTimeBudget = 5;
+
+    public int maxSamplingInterval = 8;
+
+    public int eventSamplingInterval = 30;
+
     @Override
     protected void read(Map<Object, Object> map) {
         automaticallySendBugReports = (boolean) map.getOrDefault("automaticallySendBugReports", true);
+        if (map.containsKey("updateTimeBudget")) {
+            updateTimeBudget = parseInteger(map.get("updateTimeBudget"));
+        }
+        if (map.containsKey("maxSamplingInterval")) {
+            maxSamplingInterval = parseInteger(map.get("maxSamplingInterval"));
+        }
+        if (map.containsKey("eventSamplingInterval")) {
+            eventSamplingInterval = parseInteger(map.get("eventSamplingInterval"));
+        }
     }
 
     @Override
@@ -38,5 +53,19 @@ public class MainConfig extends Configuration {
                 "Bug reports do not contain any sensitive or identifying information",
                 "Bug reports contain the plugin name, plugin version and the error message that also appears in the server log");
         write("automaticallySendBugReports", automaticallySendBugReports);
+
+        writeComments("Maximum time in milliseconds spent on updating player data per tick",
+                "The data of each player is updated once per second, spread evenly over all ticks",
+                "If updating the players of a tick takes longer the remaining players are updated in the next tick");
+        write("updateTimeBudget", updateTimeBudget);
+
+        writeComments("Values which don't change are retrieved less often, the interval doubles every time the value didn't change",
+                "This is the maximum interval in seconds. As soon as a value changes it is retrieved every second again",
+                "Set to 1 to retrieve all values every second");
+        write("maxSamplingInterval", maxSamplingInterval);
+
+        writeComments("Values like health, experience and world are updated as soon as a Bukkit event reports a change",
+                "They are additionally retrieved at this interval in seconds, in case a change happened without an event");
+        write("eventSamplingInterval", eventSamplingInterval);
     }
 }
@@ -31,8 +31,8 @@ import java.util.logging.Logger;
 public class PlaceholderAPIDataAccess extends AbstractBukkitDataAccess<Player> {
 
     public PlaceholderAPIDataAccess(Logger logger, Plugin plugin) {
-        super(logger, plugin);
-        bind(BTLPDataKeys.PlaceholderAPIDataKey.class, (player, key) -> {
+        super(logger);
+        bindSync(BTLPDataKeys.PlaceholderAPIDataKey.class, (player, key) -> {
             try {
                 return PlaceholderAPI.setPlaceholders(player, key.getPlaceholder());
             } catch (Throwable th) {
@@ -0,0 +1,104 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.bukkitbridge;
+
+import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DataKeys;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeySamplerTest {
+    private static final int MAX_INTERVAL = 8;
+
+    private final KeySampler sampler = new KeySampler();
+    private final Set<DataKey<?>> requested = ImmutableSet.of(DataKeys.World);
+
+    /**
+     * Run updates until the key is selected and record the sample.
+     *
+     * @return the number of updates it took
+     */
+    private int sampleNext(boolean changed) {
+        for (int updates = 1; updates <= 100; updates++) {
+            if (!sampler.select(requested, false, false).isEmpty()) {
+                sampler.sampled(DataKeys.World, changed, MAX_INTERVAL);
+                return updates;
+            }
+        }
+        throw new AssertionError("key not sampled");
+    }
+
+    @Test
+    public void testBackOff() {
+        assertEquals(1, sampleNext(false));
+        assertEquals(2, sampleNext(false));
+        assertEquals(4, sampleNext(false));
+        assertEquals(8, sampleNext(false));
+        assertEquals(8, sampleNext(false));
+        assertEquals(8, sampler.getInterval(DataKeys.World));
+    }
+
+    @Test
+    public void testSnapBackOnChange() {
+        for (int i = 0; i < 5; i++) {
+            sampleNext(false);
+        }
+        assertEquals(8, sampleNext(true));
+        assertEquals(1, sampler.getInterval(DataKeys.World));
+        assertEquals(1, sampleNext(false));
+        assertEquals(2, sampleNext(false));
+    }
+
+    @Test
+    public void testInvalidatedKeyIsSampled() {
+        for (int i = 0; i < 5; i++) {
+            sampleNext(false);
+        }
+        assertTrue(sampler.select(requested, false, true).isEmpty());
+        sampler.invalidate(Collections.singleton(DataKeys.World));
+        assertEquals(Collections.singletonList(DataKeys.World), sampler.select(requested, false, true));
+        // the invalidation is consumed by the sample
+        assertTrue(sampler.select(requested, false, true).isEmpty());
+    }
+
+    @Test
+    public void testSelectAll() {
+        for (int i = 0; i < 5; i++) {
+            sampleNext(false);
+        }
+        assertEquals(Collections.singletonList(DataKeys.World), sampler.select(requested, true, false));
+    }
+
+    @Test
+    public void testFixedInterval() {
+        sampler.select(requested, true, false);
+        sampler.sampledFixed(DataKeys.World, 20);
+        assertEquals(20, sampler.getInterval(DataKeys.World));
+        sampler.sampled(DataKeys.World, true, MAX_INTERVAL);
+        assertEquals(1, sampler.getInterval(DataKeys.World));
+    }
+}
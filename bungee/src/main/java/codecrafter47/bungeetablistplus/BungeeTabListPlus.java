@@ -30,14 +30,17 @@ import codecrafter47.bungeetablistplus.commands.OldSuperCommand;
 import codecrafter47.bungeetablistplus.commands.SuperCommand;
 import codecrafter47.bungeetablistplus.common.BugReportingService;
 import codecrafter47.bungeetablistplus.common.Constants;
+import codecrafter47.bungeetablistplus.data.DataCache;
 import codecrafter47.bungeetablistplus.data.DataKeys;
 import codecrafter47.bungeetablistplus.listener.TabListListener;
 import codecrafter47.bungeetablistplus.managers.ConfigManager;
+import codecrafter47.bungeetablistplus.managers.DataDependencyTracker;
 import codecrafter47.bungeetablistplus.managers.ConnectedPlayerManager;
 import codecrafter47.bungeetablistplus.managers.DataManager;
 import codecrafter47.bungeetablistplus.managers.PermissionManager;
 import codecrafter47.bungeetablistplus.managers.PlaceholderManagerImpl;
 import codecrafter47.bungeetablistplus.managers.PlayerManagerImpl;
+import codecrafter47.bungeetablistplus.managers.PlayerSnapshotManager;
 import codecrafter47.bungeetablistplus.managers.RedisPlayerManager;
 import codecrafter47.bungeetablistplus.managers.SkinManager;
 import codecrafter47.bungeetablistplus.managers.SkinManagerImpl;
@@ -106,12 +109,15 @@ public class BungeeTabListPlus extends BungeeTabListPlusAPI {
     @Getter
     private final Plugin plugin;
     private Collection<IPlayerProvider> playerProviders;
+    private PlayerSnapshotManager playerSnapshotManager;
     private ResendThread resendThread;
 
     @Getter
     private RedisPlayerManager redisPlayerManager;
     @Getter
     private DataManager dataManager;
+    @Getter
+    private final DataDependencyTracker<ProxiedPlayer> dataDependencyTracker = new DataDependencyTracker<>();
 
     public BungeeTabListPlus(Plugin plugin) {
         this.plugin = plugin;
@@ -273,6 +279,8 @@ public class BungeeTabListPlus extends BungeeTabListPlusAPI {
 
         playerProviders.add(fakePlayerManager);
 
+        playerSnapshotManager = new PlayerSnapshotManager(playerProviders);
+
         plugin.getProxy().registerChannel(Constants.channel);
         bukkitBridge = new BukkitBridge(this);
 
@@ -448,6 +456,28 @@ public class BungeeTabListPlus extends BungeeTabListPlusAPI {
         }
     }
 
+    /**
+     * Resends the tab lists which display data of the given cache whenever a change set is
+     * applied to it.
+     *
+     * @param cache the player or server data
+     */
+    public void trackDataChanges(DataCache cache) {
+        cache.registerChangeSetListener(changeSet -> onDataChanged(cache));
+    }
+
+    private void onDataChanged(DataCache cache) {
+        if (!resendThread.isInMainThread()) {
+            resendThread.execute(() -> onDataChanged(cache));
+            return;
+        }
+        if (config.getMainConfig().updateOnDataChange) {
+            for (ProxiedPlayer viewer : dataDependencyTracker.getDependentViewers(cache)) {
+                resendThread.add(viewer);
+            }
+        }
+    }
+
     public void runInMainThread(Runnable runnable) {
         resendThread.execute(runnable);
     }
@@ -468,7 +498,7 @@ public class BungeeTabListPlus extends BungeeTabListPlusAPI {
      * @return an instance of the PlayerManager or null
      */
     public PlayerManager constructPlayerManager(ProxiedPlayer viewer) {
-        return new PlayerManagerImpl(this, playerProviders, viewer);
+        return new PlayerManagerImpl(this, playerSnapshotManager.getSnapshot(), viewer);
     }
 
     public SkinManager getSkinManager() {
@@ -23,6 +23,7 @@ import codecrafter47.bungeetablistplus.api.bungee.tablist.TabListContext;
 import codecrafter47.bungeetablistplus.api.bungee.tablist.TabListProvider;
 import codecrafter47.bungeetablistplus.layout.LayoutException;
 import codecrafter47.bungeetablistplus.managers.ConnectedPlayerManager;
+import codecrafter47.bungeetablistplus.managers.DataDependencyTracker;
 import codecrafter47.bungeetablistplus.player.ConnectedPlayer;
 import codecrafter47.bungeetablistplus.tablist.GenericTabList;
 import codecrafter47.bungeetablistplus.tablist.GenericTabListContext;
@@ -155,7 +156,15 @@ class ResendThread implements Runnable, Executor {
 
                 context = context.setPlayer(connectedPlayer);
 
-            tlp.fillTabList(player, tabList, context);
+            DataDependencyTracker<ProxiedPlayer> dependencyTracker = BungeeTabListPlus.getInstance().getDataDependencyTracker();
+            if (BungeeTabListPlus.getInstance().getConfigManager().getMainConfig().updateOnDataChange) {
+                dependencyTracker.startRecording();
+            }
+            try {
+                tlp.fillTabList(player, tabList, context);
+            } finally {
+                dependencyTracker.stopRecording(player);
+            }
 
             tablistHandler.sendTabList(tabList);
         } catch (Throwable th) {
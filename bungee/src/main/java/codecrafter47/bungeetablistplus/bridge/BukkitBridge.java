@@ -22,10 +22,15 @@ import codecrafter47.bungeetablistplus.BungeeTabListPlus;
 import codecrafter47.bungeetablistplus.api.bungee.placeholder.PlaceholderProvider;
 import codecrafter47.bungeetablistplus.common.BTLPDataKeys;
 import codecrafter47.bungeetablistplus.common.Constants;
+import codecrafter47.bungeetablistplus.common.network.BridgeInput;
+import codecrafter47.bungeetablistplus.common.network.BridgeOutput;
+import codecrafter47.bungeetablistplus.common.network.BridgeProtocol;
+import codecrafter47.bungeetablistplus.common.network.DataKeyTable;
 import codecrafter47.bungeetablistplus.data.DataCache;
+import codecrafter47.bungeetablistplus.data.DataChangeSet;
 import codecrafter47.bungeetablistplus.data.DataKey;
 import codecrafter47.bungeetablistplus.player.Player;
-import com.google.common.collect.Sets;
+import com.google.common.collect.MapMaker;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.connection.Server;
@@ -41,23 +46,44 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public class BukkitBridge implements Listener {
     private final BungeeTabListPlus plugin;
 
-    private final Map<String, BukkitData> serverInformation = new HashMap<>();
-    private final Map<ProxiedPlayer, BukkitData> playerInformation = new IdentityHashMap<>();
+    private final Map<String, BukkitData> serverInformation = new ConcurrentHashMap<>();
+    /**
+     * Modified by the login and disconnect event threads, must be copied while holding its lock before
+     * iterating over it.
+     */
+    private final Map<ProxiedPlayer, BukkitData> playerInformation = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Data key ids per server connection. A new connection starts with an empty table.
+     */
+    private final Map<Server, DataKeyTable> keyTables = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Identifies this proxy towards the bukkit bridges, which bundle the data of all players connected
+     * through the same proxy into one message.
+     */
+    private final UUID proxyId = UUID.randomUUID();
 
     private final Set<String> registeredThirdPartyVariables = new HashSet<>();
     private final ReentrantLock thirdPartyVariablesLock = new ReentrantLock();
@@ -66,6 +92,7 @@ public class BukkitBridge implements Listener {
         this.plugin = plugin;
         plugin.getProxy().getPluginManager().registerListener(plugin.getPlugin(), this);
         plugin.getProxy().getScheduler().schedule(plugin.getPlugin(), () -> plugin.runInMainThread(this::checkForThirdPartyVariables), 2, 2, TimeUnit.SECONDS);
+        plugin.getProxy().getScheduler().schedule(plugin.getPlugin(), () -> plugin.runInMainThread(this::releaseUnusedData), BukkitData.LEASE_DURATION, BukkitData.LEASE_DURATION, TimeUnit.MILLISECONDS);
     }
 
     private void checkForThirdPartyVariables() {
@@ -100,10 +127,11 @@ public class BukkitBridge implements Listener {
     }
 
     private BukkitData getServerDataCache(String serverName) {
-        if (!serverInformation.containsKey(serverName)) {
-            serverInformation.putIfAbsent(serverName, new BukkitData());
-        }
-        return serverInformation.get(serverName);
+        return serverInformation.computeIfAbsent(serverName, name -> {
+            BukkitData data = new BukkitData();
+            plugin.trackDataChanges(data);
+            return data;
+        });
     }
 
     @Nullable
@@ -111,65 +139,197 @@ public class BukkitBridge implements Listener {
         return playerInformation.get(player);
     }
 
+    /**
+     * Decodes bridge messages on the network thread which received them, the main thread only applies the
+     * decoded data.
+     */
     @EventHandler
     public void onPluginMessage(PluginMessageEvent event) {
         if (event.getTag().equals(Constants.channel)) {
             event.setCancelled(true);
             if (event.getReceiver() instanceof ProxiedPlayer && event.getSender() instanceof Server) {
-                plugin.runInMainThread(() -> {
-                    try {
-                        ProxiedPlayer player = (ProxiedPlayer) event.getReceiver();
-                        Server server = (Server) event.getSender();
-
-                        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(event.getData()));
-
-                        String subchannel = in.readUTF();
-
-                        switch (subchannel) {
-                            case Constants.subchannelUpdateServer:
-                                updateData(in, getServerDataCache(server.getInfo().getName()));
-                                break;
-                            case Constants.subchannelUpdatePlayer:
-                                updateData(in, getPlayerDataCache(player));
-                                break;
-                            case Constants.subchannelPlayerHash:
-                                BukkitData bukkitData = getPlayerDataCache(player);
-                                if (bukkitData == null || bukkitData.getMap().hashCode() != in.readInt()) {
-                                    requestReset(player);
-                                }
-                                break;
-                            case Constants.subchannelServerHash:
-                                if (getServerDataCache(server.getInfo().getName()).getMap().hashCode() != in.readInt()) {
-                                    requestReset(server);
-                                }
-                                break;
-                            case Constants.subchannelPlaceholder:
-                                plugin.getPlaceholderAPIHook().onPlaceholderConfirmed(in.readUTF());
-                                break;
-                            default:
-                                plugin.getLogger().log(Level.SEVERE,
-                                        "BukkitBridge on server " + server.getInfo().
-                                                getName() + " send an unknown packet! Is everything up-to-date?");
-                                break;
-                        }
-                    } catch (StreamCorruptedException ex) {
-                        plugin.getLogger().log(Level.WARNING, "BungeeTabListPlus_BukkitBridge.jar on server {0} needs to be updated", ((Server) event.getSender()).getInfo());
-                    } catch (IOException | ClassNotFoundException ex) {
-                        plugin.getLogger().log(Level.SEVERE, "Exception while parsing data from Bukkit", ex);
+                ProxiedPlayer player = (ProxiedPlayer) event.getReceiver();
+                Server server = (Server) event.getSender();
+                try {
+                    Runnable task;
+                    if (BridgeProtocol.isBinary(event.getData())) {
+                        task = decodeBinaryMessage(player, server, event.getData());
+                    } else {
+                        task = decodeLegacyMessage(player, server, event.getData());
                     }
-                });
+                    if (task != null) {
+                        plugin.runInMainThread(task);
+                    }
+                } catch (StreamCorruptedException ex) {
+                    plugin.getLogger().log(Level.WARNING, "BungeeTabListPlus_BukkitBridge.jar on server {0} needs to be updated", server.getInfo());
+                } catch (IOException | ClassNotFoundException ex) {
+                    plugin.getLogger().log(Level.SEVERE, "Exception while parsing data from Bukkit", ex);
+                }
             }
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void updateData(ObjectInputStream in, DataCache dataCache) throws IOException, ClassNotFoundException {
-        if (dataCache == null) {
-            return;
+    /**
+     * Decode a message in the legacy format.
+     *
+     * @return the task applying the message on the main thread, or null
+     */
+    @Nullable
+    private Runnable decodeLegacyMessage(ProxiedPlayer player, Server server, byte[] data) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+
+        String subchannel = in.readUTF();
+
+        switch (subchannel) {
+            case Constants.subchannelUpdateServer: {
+                DataChangeSet changes = readChangeSet(in);
+                return () -> getServerDataCache(server.getInfo().getName()).apply(changes);
+            }
+            case Constants.subchannelUpdatePlayer: {
+                DataChangeSet changes = readChangeSet(in);
+                return () -> {
+                    BukkitData bukkitData = getPlayerDataCache(player);
+                    if (bukkitData != null) {
+                        bukkitData.apply(changes);
+                    }
+                };
+            }
+            case Constants.subchannelPlayerHash: {
+                int hash = in.readInt();
+                return () -> {
+                    BukkitData bukkitData = getPlayerDataCache(player);
+                    if (bukkitData == null || bukkitData.getMap().hashCode() != hash) {
+                        requestReset(player);
+                    }
+                };
+            }
+            case Constants.subchannelServerHash: {
+                int hash = in.readInt();
+                return () -> {
+                    if (getServerDataCache(server.getInfo().getName()).getMap().hashCode() != hash) {
+                        requestReset(server);
+                    }
+                };
+            }
+            case Constants.subchannelPlaceholder: {
+                String placeholder = in.readUTF();
+                return () -> plugin.getPlaceholderAPIHook().onPlaceholderConfirmed(placeholder);
+            }
+            default:
+                plugin.getLogger().log(Level.SEVERE,
+                        "BukkitBridge on server " + server.getInfo().
+                                getName() + " send an unknown packet! Is everything up-to-date?");
+                return null;
+        }
+    }
+
+    /**
+     * Decode a binary message. Key id announcements are applied directly, the messages of a connection
+     * are received in order by the same network thread.
+     *
+     * @return the task applying the message on the main thread, or null
+     */
+    @Nullable
+    private Runnable decodeBinaryMessage(ProxiedPlayer player, Server server, byte[] data) throws IOException {
+        BridgeInput in = new BridgeInput(data);
+        int messageType = in.readMessageHeader();
+        DataKeyTable keyTable = keyTables.computeIfAbsent(server, s -> new DataKeyTable());
+        switch (messageType) {
+            case BridgeProtocol.KEY_IDS:
+                keyTable.readKeyIds(in);
+                return null;
+            case BridgeProtocol.UPDATE_SERVER_DATA: {
+                int sequence = in.readVarInt();
+                int flags = in.readUnsignedByte();
+                DataChangeSet changes = readChangeSet(in, keyTable);
+                return () -> updateServerData(server, sequence, flags, changes);
+            }
+            case BridgeProtocol.UPDATE_PLAYER_DATA: {
+                List<PlayerDataUpdate> updates = new ArrayList<>();
+                while (in.hasRemaining()) {
+                    UUID uuid = new UUID(in.readLong(), in.readLong());
+                    int sequence = in.readVarInt();
+                    int flags = in.readUnsignedByte();
+                    updates.add(new PlayerDataUpdate(uuid, sequence, flags, readChangeSet(in, keyTable)));
+                }
+                return () -> updatePlayerData(server, updates);
+            }
+            case BridgeProtocol.PLACEHOLDER: {
+                String placeholder = in.readString();
+                return () -> plugin.getPlaceholderAPIHook().onPlaceholderConfirmed(placeholder);
+            }
+            default:
+                plugin.getLogger().log(Level.SEVERE,
+                        "BukkitBridge on server " + server.getInfo().
+                                getName() + " send an unknown packet! Is everything up-to-date?");
+                return null;
+        }
+    }
+
+    private void updateServerData(Server server, int sequence, int flags, DataChangeSet changes) {
+        BukkitData bukkitData = getServerDataCache(server.getInfo().getName());
+        switch (bukkitData.update(sequence, flags, changes)) {
+            case APPLIED:
+                BridgeOutput ack = BridgeProtocol.createMessage(BridgeProtocol.ACK_SERVER_DATA);
+                ack.writeVarInt(sequence);
+                server.sendData(Constants.channel, ack.toByteArray());
+                break;
+            case GAP:
+                requestReset(server);
+                break;
+        }
+    }
+
+    /**
+     * Applies the data of all players the server has bundled into one message. The message arrives through
+     * the connection of one of them, so each entry is checked to still belong to a player on that server.
+     */
+    private void updatePlayerData(Server server, List<PlayerDataUpdate> updates) {
+        BridgeOutput ack = null;
+        for (PlayerDataUpdate update : updates) {
+            ProxiedPlayer player = plugin.getProxy().getPlayer(update.uuid);
+            Server playerServer = player != null ? player.getServer() : null;
+            if (playerServer == null || !playerServer.getInfo().getName().equals(server.getInfo().getName())) {
+                continue;
+            }
+            BukkitData bukkitData = getPlayerDataCache(player);
+            if (bukkitData != null) {
+                switch (bukkitData.update(update.sequence, update.flags, update.changes)) {
+                    case APPLIED:
+                        if (ack == null) {
+                            ack = BridgeProtocol.createMessage(BridgeProtocol.ACK_PLAYER_DATA);
+                        }
+                        ack.writeLong(update.uuid.getMostSignificantBits());
+                        ack.writeLong(update.uuid.getLeastSignificantBits());
+                        ack.writeVarInt(update.sequence);
+                        break;
+                    case GAP:
+                        requestReset(player);
+                        break;
+                }
+            }
+        }
+        if (ack != null) {
+            server.sendData(Constants.channel, ack.toByteArray());
         }
+    }
+
+    private DataChangeSet readChangeSet(BridgeInput in, DataKeyTable keyTable) throws IOException {
+        int size = in.readVarInt();
+        DataChangeSet.Builder changes = DataChangeSet.builder();
+        for (int i = 0; i < size; i++) {
+            changes.putUnchecked(keyTable.readKey(in), in.readValue());
+        }
+        return changes.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private DataChangeSet readChangeSet(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        DataChangeSet.Builder changes = DataChangeSet.builder();
         for (Entry<DataKey, Object> entry : ((Map<DataKey, Object>) in.readObject()).entrySet()) {
-            dataCache.updateValue(entry.getKey(), entry.getValue());
+            changes.putUnchecked(entry.getKey(), entry.getValue());
         }
+        return changes.build();
     }
 
     @EventHandler
@@ -178,16 +338,45 @@ public class BukkitBridge implements Listener {
         BukkitData bukkitData = playerInformation.get(player);
         if (bukkitData != null) {
             bukkitData.clear();
+            bukkitData.resetSequence();
+            bukkitData.resetLeases();
+        }
+        announceProtocolVersion(event.getServer());
+    }
+
+    /**
+     * Tells the bukkit bridge that it may use the binary protocol for this connection. This also starts
+     * a new set of data key ids.
+     * Older bridges don't understand the message and keep using the legacy format.
+     */
+    private void announceProtocolVersion(Server server) {
+        try {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(os);
+            out.writeUTF(Constants.subchannelProtocolVersion);
+            out.writeInt(BridgeProtocol.VERSION);
+            out.writeLong(proxyId.getMostSignificantBits());
+            out.writeLong(proxyId.getLeastSignificantBits());
+            // compressed messages are accepted
+            out.writeBoolean(true);
+            out.close();
+            server.sendData(Constants.channel, os.toByteArray());
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error while sending data to bukkit", ex);
         }
     }
 
     public <T> Optional<T> get(ServerInfo server, DataKey<T> key) {
+        return Optional.ofNullable(getOrNull(server, key));
+    }
+
+    @Nullable
+    public <T> T getOrNull(ServerInfo server, DataKey<T> key) {
         BukkitData data = getServerDataCache(server.getName());
-        Optional<T> value = data.getValue(key);
-        if (!value.isPresent()) {
-            Set<DataKey> requestedData = data.getRequestedData();
-            if (!requestedData.contains(key) && !server.getPlayers().isEmpty()) {
-                requestedData.add(key);
+        plugin.getDataDependencyTracker().recordAccess(data);
+        T value = data.getRawValue(key);
+        if (data.renewLease(key, value == null)) {
+            if (!server.getPlayers().isEmpty()) {
                 try {
                     ByteArrayOutputStream os = new ByteArrayOutputStream();
                     ObjectOutputStream out = new ObjectOutputStream(os);
@@ -203,6 +392,54 @@ public class BukkitBridge implements Listener {
         return value;
     }
 
+    /**
+     * Releases the data keys which haven't been read for a while, so the bukkit bridges stop retrieving them.
+     * <p>
+     * Leases are renewed by reading the keys. A tab list may not be updated while its data doesn't change, so
+     * expired leases are first marked and the tab lists are updated, which reads all keys used by the active
+     * tab lists. The keys which still haven't been read at the next check are released.
+     */
+    private void releaseUnusedData() {
+        long now = System.currentTimeMillis();
+        boolean updateTabLists = false;
+        for (Map.Entry<String, BukkitData> entry : serverInformation.entrySet()) {
+            ServerInfo server = plugin.getProxy().getServerInfo(entry.getKey());
+            updateTabLists |= entry.getValue().releaseExpiredLeases(now, key -> {
+                if (server != null) {
+                    server.sendData(Constants.channel, createReleaseMessage(Constants.subchannelReleaseServerVariable, key));
+                }
+            });
+        }
+        Map<ProxiedPlayer, BukkitData> players;
+        synchronized (playerInformation) {
+            players = new IdentityHashMap<>(playerInformation);
+        }
+        for (Map.Entry<ProxiedPlayer, BukkitData> entry : players.entrySet()) {
+            Server server = entry.getKey().getServer();
+            updateTabLists |= entry.getValue().releaseExpiredLeases(now, key -> {
+                if (server != null) {
+                    server.sendData(Constants.channel, createReleaseMessage(Constants.subchannelReleasePlayerVariable, key));
+                }
+            });
+        }
+        if (updateTabLists) {
+            plugin.resendTabLists();
+        }
+    }
+
+    private byte[] createReleaseMessage(String subchannel, DataKey<?> key) {
+        try {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(os);
+            out.writeUTF(subchannel);
+            out.writeObject(key);
+            out.close();
+            return os.toByteArray();
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
     private void requestReset(ProxiedPlayer player) {
         try {
             ByteArrayOutputStream os = new ByteArrayOutputStream();
@@ -237,16 +474,166 @@ public class BukkitBridge implements Listener {
         playerInformation.remove(player);
     }
 
+    /**
+     * A decoded entry of an {@link BridgeProtocol#UPDATE_PLAYER_DATA} message.
+     */
+    private static class PlayerDataUpdate {
+        private final UUID uuid;
+        private final int sequence;
+        private final int flags;
+        private final DataChangeSet changes;
+
+        private PlayerDataUpdate(UUID uuid, int sequence, int flags, DataChangeSet changes) {
+            this.uuid = uuid;
+            this.sequence = sequence;
+            this.flags = flags;
+            this.changes = changes;
+        }
+    }
+
+    enum UpdateResult {
+        APPLIED, DUPLICATE, GAP
+    }
+
     public static class BukkitData extends DataCache {
-        private Set<DataKey> requestedData = Sets.newConcurrentHashSet();
-        private long lastAccess = System.currentTimeMillis();
+        /**
+         * Time in milliseconds after which a data key which hasn't been read is released.
+         */
+        static final long LEASE_DURATION = 30000;
+
+        /**
+         * Time in milliseconds after which a missing value is requested again.
+         */
+        private static final long REQUEST_RETRY_INTERVAL = 1000;
 
-        public Set<DataKey> getRequestedData() {
-            if (System.currentTimeMillis() - lastAccess > 1000) {
-                requestedData.clear();
-                lastAccess = System.currentTimeMillis();
+        private final Map<DataKey<?>, Lease> leases = new ConcurrentHashMap<>();
+
+        /**
+         * Whether the data is received using the binary protocol, i.e. the bukkit bridge understands
+         * release messages.
+         */
+        private volatile boolean binaryProtocol = false;
+
+        /**
+         * Sequence number of the last update applied from the binary protocol, -1 if the next update
+         * must be a full update.
+         */
+        private int sequence = -1;
+        private boolean resetRequested = false;
+
+        /**
+         * Apply a sequence numbered update. A full update replaces all data, other updates are only applied
+         * if they directly follow the last applied update.
+         *
+         * @return {@link UpdateResult#GAP} if a reset has to be requested
+         */
+        UpdateResult update(int sequence, int flags, DataChangeSet changes) {
+            binaryProtocol = true;
+            if ((flags & BridgeProtocol.FLAG_FULL_UPDATE) != 0) {
+                clear();
+                apply(changes);
+                this.sequence = sequence;
+                resetRequested = false;
+                return UpdateResult.APPLIED;
+            }
+            if (this.sequence != -1 && sequence == this.sequence + 1) {
+                apply(changes);
+                this.sequence = sequence;
+                return UpdateResult.APPLIED;
+            }
+            if (this.sequence != -1 && sequence <= this.sequence) {
+                return UpdateResult.DUPLICATE;
+            }
+            // only request a reset once, the bukkit bridge sends a full update if it doesn't get acknowledgements
+            if (resetRequested) {
+                return UpdateResult.DUPLICATE;
+            }
+            resetRequested = true;
+            return UpdateResult.GAP;
+        }
+
+        void resetSequence() {
+            sequence = -1;
+            resetRequested = false;
+            binaryProtocol = false;
+        }
+
+        /**
+         * Renew the lease of a data key. Called whenever the key is read.
+         *
+         * @param key     the data key
+         * @param missing whether the value is missing
+         * @return true if the key has to be requested from the bukkit bridge
+         */
+        public boolean renewLease(DataKey<?> key, boolean missing) {
+            long now = System.currentTimeMillis();
+            Lease lease = leases.get(key);
+            if (lease == null) {
+                leases.put(key, new Lease(now));
+                return true;
+            }
+            lease.lastAccess = now;
+            if (missing && now - lease.lastRequest > REQUEST_RETRY_INTERVAL) {
+                lease.lastRequest = now;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Keys with value change listeners are never released.
+         */
+        @Override
+        public synchronized <T> void registerValueChangeListener(DataKey<T> key, Consumer<T> listener) {
+            super.registerValueChangeListener(key, listener);
+            leases.computeIfAbsent(key, k -> new Lease(System.currentTimeMillis())).pinned = true;
+        }
+
+        /**
+         * Request the keys again as soon as they are read, after the player has switched servers.
+         */
+        void resetLeases() {
+            for (Lease lease : leases.values()) {
+                lease.lastRequest = 0;
             }
-            return requestedData;
+        }
+
+        /**
+         * Mark the leases which have expired, and release those which had already been marked by the last call.
+         *
+         * @param release called for every released key if the bukkit bridge understands release messages
+         * @return true if leases have been marked
+         */
+        boolean releaseExpiredLeases(long now, Consumer<DataKey<?>> release) {
+            boolean marked = false;
+            for (Iterator<Map.Entry<DataKey<?>, Lease>> iterator = leases.entrySet().iterator(); iterator.hasNext(); ) {
+                Map.Entry<DataKey<?>, Lease> entry = iterator.next();
+                Lease lease = entry.getValue();
+                if (lease.pinned || now - lease.lastAccess < LEASE_DURATION) {
+                    lease.expired = false;
+                } else if (!lease.expired) {
+                    lease.expired = true;
+                    marked = true;
+                } else {
+                    iterator.remove();
+                    if (binaryProtocol) {
+                        release.accept(entry.getKey());
+                    }
+                }
+            }
+            return marked;
+        }
+    }
+
+    private static class Lease {
+        private volatile long lastAccess;
+        private volatile long lastRequest;
+        private boolean expired = false;
+        private boolean pinned = false;
+
+        private Lease(long now) {
+            lastAccess = now;
+            lastRequest = now;
         }
     }
 }
@@ -36,6 +36,8 @@ public class MainConfig extends Configuration {
 
     public boolean updateOnServerChange = true;
 
+    public boolean updateOnDataChange = true;
+
     public int charLimit = -1;
 
     public String permissionSource = "AUTO";
@@ -139,6 +141,10 @@ public class MainConfig extends Configuration {
             updateOnServerChange = parseBoolean(map.get("updateOnServerChange"));
         }
 
+        if (map.containsKey("updateOnDataChange")) {
+            updateOnDataChange = parseBoolean(map.get("updateOnDataChange"));
+        }
+
         if (map.containsKey("charLimit")) {
             charLimit = parseInteger(map.get("charLimit"));
         }
@@ -231,6 +237,9 @@ public class MainConfig extends Configuration {
         writeComment("whether tablist should be resend if a player switches the server");
         write("updateOnServerChange", updateOnServerChange);
 
+        writeComment("whether tablist should be resend if data of a player or server (e.g. prefix, health) displayed in it changes");
+        write("updateOnDataChange", updateOnDataChange);
+
         writeComments("You can limit the number of characters per slot here",
                 "Color codes do not count as a character; -1 means unlimited");
         write("charLimit", charLimit);
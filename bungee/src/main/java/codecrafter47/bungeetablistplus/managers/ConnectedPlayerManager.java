@@ -20,6 +20,7 @@
 package codecrafter47.bungeetablistplus.managers;
 
 import codecrafter47.bungeetablistplus.BungeeTabListPlus;
+import codecrafter47.bungeetablistplus.bridge.BukkitBridge;
 import codecrafter47.bungeetablistplus.player.ConnectedPlayer;
 import codecrafter47.bungeetablistplus.player.IPlayerProvider;
 import com.google.common.collect.ImmutableList;
@@ -82,7 +83,10 @@ public class ConnectedPlayerManager implements IPlayerProvider {
 
     @Synchronized
     public void onPlayerConnected(ConnectedPlayer player) {
-        player.setBukkitData(BungeeTabListPlus.getInstance().getBridge().onConnected(player.getPlayer()));
+        BukkitBridge.BukkitData bukkitData = BungeeTabListPlus.getInstance().getBridge().onConnected(player.getPlayer());
+        player.setBukkitData(bukkitData);
+        BungeeTabListPlus.getInstance().trackDataChanges(player.getData());
+        BungeeTabListPlus.getInstance().trackDataChanges(bukkitData);
         players.add(player);
         byName.put(player.getName(), player);
         byUUID.put(player.getUniqueID(), player);
@@ -95,6 +99,7 @@ public class ConnectedPlayerManager implements IPlayerProvider {
         byName.remove(player.getName(), player);
         byUUID.remove(player.getUniqueID(), player);
         BungeeTabListPlus.getInstance().getBridge().onDisconnected(player.getPlayer());
+        BungeeTabListPlus.getInstance().runInMainThread(() -> BungeeTabListPlus.getInstance().getDataDependencyTracker().removeViewer(player.getPlayer()));
         playerList = ImmutableList.copyOf((Iterable<? extends ConnectedPlayer>) players);
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.managers;
+
+import codecrafter47.bungeetablistplus.data.DataCache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers which data caches were read while the tab list of a viewer was built, so a change to
+ * a cache only causes the tab lists of the viewers displaying its data to be resent.
+ * <p>
+ * Dependencies are recorded per rendering pass and replace those of the previous pass. The
+ * tracker itself is not thread safe, it is meant to be used from the main thread only. Reads
+ * from other threads are ignored.
+ *
+ * @param <V> the type of the viewer
+ */
+public class DataDependencyTracker<V> {
+
+    private final Map<DataCache, Set<V>> viewersByCache = new IdentityHashMap<>();
+    private final Map<V, Set<DataCache>> cachesByViewer = new HashMap<>();
+
+    private Thread recordingThread = null;
+    private Set<DataCache> recording = null;
+    private DataCache lastRecorded = null;
+
+    /**
+     * Starts recording the data caches read by the current thread.
+     */
+    public void startRecording() {
+        recordingThread = Thread.currentThread();
+        recording = Collections.newSetFromMap(new IdentityHashMap<>());
+        lastRecorded = null;
+    }
+
+    /**
+     * Stops recording and replaces the dependencies of the viewer with the recorded data caches.
+     *
+     * @param viewer the viewer whose tab list has been built
+     */
+    public void stopRecording(V viewer) {
+        Set<DataCache> caches = recording;
+        recordingThread = null;
+        recording = null;
+        lastRecorded = null;
+        if (caches != null) {
+            removeViewer(viewer);
+            if (!caches.isEmpty()) {
+                cachesByViewer.put(viewer, caches);
+                for (DataCache cache : caches) {
+                    viewersByCache.computeIfAbsent(cache, c -> Collections.newSetFromMap(new HashMap<>())).add(viewer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a read of the given data cache if called from the thread currently recording.
+     *
+     * @param cache the data cache
+     */
+    public void recordAccess(DataCache cache) {
+        if (recordingThread == Thread.currentThread() && cache != lastRecorded) {
+            lastRecorded = cache;
+            recording.add(cache);
+        }
+    }
+
+    /**
+     * Get the viewers whose tab list read the given data cache when it was last built.
+     *
+     * @param cache the data cache
+     * @return the viewers, not a copy
+     */
+    public Collection<V> getDependentViewers(DataCache cache) {
+        Set<V> viewers = viewersByCache.get(cache);
+        return viewers != null ? viewers : Collections.emptySet();
+    }
+
+    /**
+     * Forgets all dependencies of the given viewer.
+     *
+     * @param viewer the viewer
+     */
+    public void removeViewer(V viewer) {
+        Set<DataCache> caches = cachesByViewer.remove(viewer);
+        if (caches != null) {
+            for (DataCache cache : caches) {
+                Set<V> viewers = viewersByCache.get(cache);
+                if (viewers != null) {
+                    viewers.remove(viewer);
+                    if (viewers.isEmpty()) {
+                        viewersByCache.remove(cache);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -17,57 +17,159 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package codecrafter47.bungeetablistplus.managers;
 
 import codecrafter47.bungeetablistplus.BungeeTabListPlus;
 import codecrafter47.bungeetablistplus.data.AbstractDataAccess;
-import codecrafter47.bungeetablistplus.data.DataCache;
+import codecrafter47.bungeetablistplus.data.DataChangeSet;
 import codecrafter47.bungeetablistplus.data.DataKey;
 import codecrafter47.bungeetablistplus.data.DataKeys;
 import codecrafter47.bungeetablistplus.player.ConnectedPlayer;
+import codecrafter47.bungeetablistplus.util.TimerWheel;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PostLoginEvent;
 import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+/**
+ * Provides data computed on the proxy.
+ * <p>
+ * Every key is either polled at its own interval or only computed once after the player joined.
+ * Polling uses a {@link TimerWheel}, so each tick only touches the (player, key) pairs that are due.
+ * The providers always run in the scheduler thread of the data manager, never in an event thread.
+ */
 public class DataManager extends AbstractDataAccess<ProxiedPlayer> implements Listener {
+    private static final int TICK_MILLIS = 250;
+    private static final int ONCE = 0;
+
     private final BungeeTabListPlus bungeeTabListPlus;
     private final PermissionManager permissionManager;
 
+    private final List<DataKey<?>> boundKeys = new ArrayList<>();
+    private final List<Integer> pollIntervals = new ArrayList<>();
+    private final TimerWheel<PollTask> timerWheel = new TimerWheel<>(64);
+
     public DataManager(BungeeTabListPlus bungeeTabListPlus, PermissionManager permissionManager) {
         this.bungeeTabListPlus = bungeeTabListPlus;
         this.permissionManager = permissionManager;
         init();
-        ProxyServer.getInstance().getScheduler().schedule(bungeeTabListPlus.getPlugin(), this::updateData, 2, 2, TimeUnit.SECONDS);
+        // players which are already online, e.g. after a reload
+        for (ConnectedPlayer player : bungeeTabListPlus.getConnectedPlayerManager().getPlayers()) {
+            scheduleInitialUpdate(player);
+        }
+        ProxyServer.getInstance().getPluginManager().registerListener(bungeeTabListPlus.getPlugin(), this);
+        ProxyServer.getInstance().getScheduler().schedule(bungeeTabListPlus.getPlugin(), this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     private void init() {
-        bind(DataKeys.BungeeCord_PrimaryGroup, permissionManager::getMainGroupFromBungeeCord);
-        bind(DataKeys.BungeeCord_Rank, permissionManager::getBungeeCordRank);
-        bind(DataKeys.BungeePerms_PrimaryGroup, permissionManager::getMainGroupFromBungeePerms);
-        bind(DataKeys.BungeePerms_Prefix, permissionManager::getPrefixFromBungeePerms);
-        bind(DataKeys.BungeePerms_DisplayPrefix, permissionManager::getDisplayPrefix);
-        bind(DataKeys.BungeePerms_Suffix, permissionManager::getSuffixFromBungeePerms);
-        bind(DataKeys.BungeePerms_Rank, permissionManager::getBungeePermsRank);
-        bind(DataKeys.ClientVersion, player1 -> BungeeTabListPlus.getInstance().getProtocolVersionProvider().getVersionString(player1));
+        bind(DataKeys.BungeeCord_PrimaryGroup, permissionManager::getMainGroupFromBungeeCord, 10, TimeUnit.SECONDS);
+        bind(DataKeys.BungeeCord_Rank, permissionManager::getBungeeCordRank, 10, TimeUnit.SECONDS);
+        bind(DataKeys.BungeePerms_PrimaryGroup, permissionManager::getMainGroupFromBungeePerms, 2, TimeUnit.SECONDS);
+        bind(DataKeys.BungeePerms_Prefix, permissionManager::getPrefixFromBungeePerms, 2, TimeUnit.SECONDS);
+        bind(DataKeys.BungeePerms_DisplayPrefix, permissionManager::getDisplayPrefix, 2, TimeUnit.SECONDS);
+        bind(DataKeys.BungeePerms_Suffix, permissionManager::getSuffixFromBungeePerms, 2, TimeUnit.SECONDS);
+        bind(DataKeys.BungeePerms_Rank, permissionManager::getBungeePermsRank, 2, TimeUnit.SECONDS);
+        // the client version can't change while the player is connected
+        bindOnce(DataKeys.ClientVersion, player1 -> BungeeTabListPlus.getInstance().getProtocolVersionProvider().getVersionString(player1));
     }
 
-    @SuppressWarnings("unchecked")
-    private void updateData() {
-        for (ConnectedPlayer player : bungeeTabListPlus.getConnectedPlayerManager().getPlayers()) {
-            for (DataKey<?> dataKey : providersByDataKey.keySet()) {
-                DataKey<Object> key = (DataKey<Object>) dataKey;
-                updateIfNecessary(player, key, getRawValue(key, player.getPlayer()));
+    private <V> void bind(DataKey<V> dataKey, Function<ProxiedPlayer, V> provider, long interval, TimeUnit unit) {
+        bind(dataKey, provider);
+        boundKeys.add(dataKey);
+        pollIntervals.add((int) Math.max(1, unit.toMillis(interval) / TICK_MILLIS));
+    }
+
+    private <V> void bindOnce(DataKey<V> dataKey, Function<ProxiedPlayer, V> provider) {
+        bind(dataKey, provider);
+        boundKeys.add(dataKey);
+        pollIntervals.add(ONCE);
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PostLoginEvent event) {
+        ConnectedPlayer player = bungeeTabListPlus.getConnectedPlayerManager().getPlayerIfPresent(event.getPlayer());
+        if (player == null) {
+            return;
+        }
+        scheduleInitialUpdate(player);
+    }
+
+    /**
+     * Schedules all keys of the player for the next tick.
+     *
+     * @param player the player
+     */
+    private void scheduleInitialUpdate(ConnectedPlayer player) {
+        synchronized (timerWheel) {
+            for (int i = 0; i < boundKeys.size(); i++) {
+                @SuppressWarnings("unchecked")
+                DataKey<Object> key = (DataKey<Object>) boundKeys.get(i);
+                timerWheel.schedule(new PollTask(player, key, pollIntervals.get(i)), 1);
             }
         }
     }
 
-    private <T> void updateIfNecessary(ConnectedPlayer player, DataKey<T> key, T value) {
-        DataCache data = player.getData();
-        if (!Objects.equals(data.getRawValue(key), value)) {
-            bungeeTabListPlus.runInMainThread(() -> data.updateValue(key, value));
+    private void tick() {
+        List<PollTask> due = new ArrayList<>();
+        synchronized (timerWheel) {
+            timerWheel.advance(due::add);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        ConnectedPlayerManager connectedPlayerManager = bungeeTabListPlus.getConnectedPlayerManager();
+        List<PollTask> reschedule = new ArrayList<>(due.size());
+        Map<ConnectedPlayer, DataChangeSet.Builder> changes = new IdentityHashMap<>();
+        for (PollTask task : due) {
+            // players which disconnected are dropped here instead of searching the wheel on disconnect
+            if (connectedPlayerManager.getPlayerIfPresent(task.player.getPlayer()) != task.player) {
+                continue;
+            }
+            collectChange(task.player, task.key, changes.computeIfAbsent(task.player, player -> DataChangeSet.builder()));
+            if (task.interval != ONCE) {
+                reschedule.add(task);
+            }
+        }
+        synchronized (timerWheel) {
+            for (PollTask task : reschedule) {
+                timerWheel.schedule(task, task.interval);
+            }
+        }
+
+        // the player data caches pass the listener notifications to the main thread
+        changes.forEach((player, builder) -> {
+            if (!builder.isEmpty()) {
+                player.getData().apply(builder.build());
+            }
+        });
+    }
+
+    private void collectChange(ConnectedPlayer player, DataKey<Object> key, DataChangeSet.Builder changes) {
+        Object value = getRawValue(key, player.getPlayer());
+        if (!Objects.equals(player.getData().getRawValue(key), value)) {
+            changes.put(key, value);
+        }
+    }
+
+    private static class PollTask {
+        private final ConnectedPlayer player;
+        private final DataKey<Object> key;
+        private final int interval;
+
+        private PollTask(ConnectedPlayer player, DataKey<Object> key, int interval) {
+            this.player = player;
+            this.key = key;
+            this.interval = interval;
         }
     }
 }
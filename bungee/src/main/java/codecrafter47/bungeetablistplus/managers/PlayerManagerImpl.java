@@ -21,11 +21,8 @@ package codecrafter47.bungeetablistplus.managers;
 import codecrafter47.bungeetablistplus.BungeeTabListPlus;
 import codecrafter47.bungeetablistplus.api.bungee.IPlayer;
 import codecrafter47.bungeetablistplus.api.bungee.PlayerManager;
-import codecrafter47.bungeetablistplus.player.IPlayerProvider;
 import codecrafter47.bungeetablistplus.player.Player;
-import com.google.common.collect.Collections2;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
+import codecrafter47.bungeetablistplus.player.PlayerSnapshot;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
@@ -41,9 +38,9 @@ public class PlayerManagerImpl implements PlayerManager {
     private final boolean includeSpectators;
     private final boolean canSeeHiddenPlayers;
 
-    public PlayerManagerImpl(BungeeTabListPlus plugin, Collection<IPlayerProvider> playerProviders, ProxiedPlayer viewer) {
+    public PlayerManagerImpl(BungeeTabListPlus plugin, PlayerSnapshot snapshot, ProxiedPlayer viewer) {
         this.viewer = viewer;
-        this.players = ImmutableList.copyOf(Iterables.concat(Collections2.transform(playerProviders, IPlayerProvider::getPlayers)));
+        this.players = snapshot.getPlayers();
         includeSpectators = plugin.getConfigManager().getMainConfig().showPlayersInGamemode3;
         canSeeHiddenPlayers = plugin.getPermissionManager().hasPermission(viewer, "bungeetablistplus.seevanished");
     }
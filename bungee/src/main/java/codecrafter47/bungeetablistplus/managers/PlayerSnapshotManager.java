@@ -0,0 +1,69 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.managers;
+
+import codecrafter47.bungeetablistplus.api.bungee.IPlayer;
+import codecrafter47.bungeetablistplus.player.IPlayerProvider;
+import codecrafter47.bungeetablistplus.player.PlayerSnapshot;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps a single {@link PlayerSnapshot} of the players of all {@link IPlayerProvider}s which
+ * is shared by all tab lists.
+ * <p>
+ * Player providers are required to return a new collection from {@link IPlayerProvider#getPlayers()}
+ * whenever their players change, so a change can be detected by comparing references.
+ */
+public class PlayerSnapshotManager {
+    private final IPlayerProvider[] playerProviders;
+    private final List<Collection<? extends IPlayer>> lastPlayers;
+    private PlayerSnapshot snapshot = null;
+    private long epoch = 0;
+
+    public PlayerSnapshotManager(Collection<IPlayerProvider> playerProviders) {
+        this.playerProviders = playerProviders.toArray(new IPlayerProvider[playerProviders.size()]);
+        this.lastPlayers = new ArrayList<>(Collections.nCopies(this.playerProviders.length, null));
+    }
+
+    public synchronized PlayerSnapshot getSnapshot() {
+        boolean changed = snapshot == null;
+        for (int i = 0; i < playerProviders.length; i++) {
+            Collection<? extends IPlayer> players = playerProviders[i].getPlayers();
+            if (players != lastPlayers.get(i)) {
+                lastPlayers.set(i, players);
+                changed = true;
+            }
+        }
+        if (changed) {
+            ImmutableList.Builder<IPlayer> builder = ImmutableList.builder();
+            for (Collection<? extends IPlayer> players : lastPlayers) {
+                builder.addAll(players);
+            }
+            snapshot = new PlayerSnapshot(++epoch, builder.build());
+        }
+        return snapshot;
+    }
+}
@@ -20,6 +20,7 @@
 package codecrafter47.bungeetablistplus.managers;
 
 import codecrafter47.bungeetablistplus.BungeeTabListPlus;
+import codecrafter47.bungeetablistplus.data.DataChangeSet;
 import codecrafter47.bungeetablistplus.data.DataKey;
 import codecrafter47.bungeetablistplus.player.ConnectedPlayer;
 import codecrafter47.bungeetablistplus.player.IPlayerProvider;
@@ -37,13 +38,18 @@ import java.io.ObjectOutputStream;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -56,6 +62,8 @@ public class RedisPlayerManager implements IPlayerProvider, Listener {
 
     private List<RedisPlayer> playerList = Collections.emptyList();
     private Map<UUID, RedisPlayer> byUUID = new ConcurrentHashMap<>();
+    private final Queue<PendingUpdate> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean updateTaskScheduled = new AtomicBoolean(false);
     private final ConnectedPlayerManager connectedPlayerManager;
 
     public RedisPlayerManager(ConnectedPlayerManager connectedPlayerManager) {
@@ -100,7 +108,10 @@ public class RedisPlayerManager implements IPlayerProvider, Listener {
 
                 RedisPlayer player = byUUID.get(uuid);
                 if (player != null) {
-                    BungeeTabListPlus.getInstance().runInMainThread(() -> player.getData().updateValue(dataKey, value));
+                    pendingUpdates.add(new PendingUpdate(player, dataKey, value));
+                    if (updateTaskScheduled.compareAndSet(false, true)) {
+                        BungeeTabListPlus.getInstance().runInMainThread(this::applyPendingUpdates);
+                    }
                 }
             } catch (Throwable th) {
                 BungeeTabListPlus.getInstance().getLogger().log(Level.SEVERE, "Failed to process data from BungeeTabListPlus running on another BungeeCord instance", th);
@@ -108,6 +119,22 @@ public class RedisPlayerManager implements IPlayerProvider, Listener {
         }
     }
 
+    /**
+     * Applies all data received since the last run, one change set per player.
+     */
+    private void applyPendingUpdates() {
+        do {
+            Map<RedisPlayer, DataChangeSet.Builder> changes = new IdentityHashMap<>();
+            PendingUpdate update;
+            while ((update = pendingUpdates.poll()) != null) {
+                changes.computeIfAbsent(update.player, player -> DataChangeSet.builder()).putUnchecked(update.key, update.value);
+            }
+            changes.forEach((player, changeSet) -> player.getData().apply(changeSet.build()));
+            updateTaskScheduled.set(false);
+            // messages received after the queue was drained but before the flag was reset didn't schedule a task
+        } while (!pendingUpdates.isEmpty() && updateTaskScheduled.compareAndSet(false, true));
+    }
+
     private void updatePlayers() {
         Set<UUID> playersOnline = RedisBungee.getApi().getPlayersOnline();
 
@@ -126,8 +153,11 @@ public class RedisPlayerManager implements IPlayerProvider, Listener {
             }
         }
 
-        // update list
-        playerList = byUUID.values().stream().filter(RedisPlayer::hasName).collect(Collectors.toList());
+        // update list, keep the old one if nothing changed so the player snapshot doesn't need to be rebuilt
+        List<RedisPlayer> players = byUUID.values().stream().filter(RedisPlayer::hasName).collect(Collectors.toList());
+        if (players.size() != playerList.size() || !new HashSet<>(players).containsAll(playerList)) {
+            playerList = players;
+        }
     }
 
     public <T> void request(UUID uuid, DataKey<T> key) {
@@ -163,6 +193,18 @@ public class RedisPlayerManager implements IPlayerProvider, Listener {
         }
     }
 
+    private static class PendingUpdate {
+        private final RedisPlayer player;
+        private final DataKey<?> key;
+        private final Object value;
+
+        private PendingUpdate(RedisPlayer player, DataKey<?> key, Object value) {
+            this.player = player;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
     private class DataChangeListener implements Consumer<Object> {
         private final UUID uuid;
         private final DataKey<Object> dataKey;
@@ -30,8 +30,6 @@ import codecrafter47.bungeetablistplus.player.ConnectedPlayer;
 import codecrafter47.bungeetablistplus.player.Player;
 import net.md_5.bungee.api.config.ServerInfo;
 
-import java.util.Optional;
-
 public class BasicPlaceholders extends PlaceholderProvider {
     @Override
     public void setup() {
@@ -85,9 +83,9 @@ public class BasicPlaceholders extends PlaceholderProvider {
             }
         });
         bind("name").alias("player").to(context -> {
-            Optional<String> displayName = ((Player) context.getPlayer()).get(DataKeys.DisplayName);
-            if (displayName.isPresent()) {
-                return displayName.get();
+            String displayName = ((Player) context.getPlayer()).getOrNull(DataKeys.DisplayName);
+            if (displayName != null) {
+                return displayName;
             }
             if (context.getPlayer() instanceof ConnectedPlayer)
                 return ((ConnectedPlayer) context.getPlayer()).getPlayer().getDisplayName();
@@ -126,12 +124,12 @@ public class BasicPlaceholders extends PlaceholderProvider {
             return prefix.substring(0, 4);
         });
         bind("permsuffix").alias("suffix").to(context -> BungeeTabListPlus.getInstance().getPermissionManager().getSuffix(context.getPlayer()));
-        bind("displayprefix").to(context -> ((Player) context.getPlayer()).get(DataKeys.BungeePerms_DisplayPrefix).orElse(""));
-        bind("bungeeperms_prefix").to(context -> ((Player) context.getPlayer()).get(DataKeys.BungeePerms_Prefix).orElse(""));
-        bind("bungeeperms_suffix").to(context -> ((Player) context.getPlayer()).get(DataKeys.BungeePerms_Suffix).orElse(""));
-        bind("bungeeperms_group").to(context -> ((Player) context.getPlayer()).get(DataKeys.BungeePerms_PrimaryGroup).orElse(""));
-        bind("clientVersion").to(context -> ((Player) context.getPlayer()).get(DataKeys.ClientVersion).orElse("unknown"));
-        bind("ping").to(context -> String.format("%d", context.getPlayer().getPing()));
+        bind("displayprefix").to(context -> orElse(((Player) context.getPlayer()).getOrNull(DataKeys.BungeePerms_DisplayPrefix), ""));
+        bind("bungeeperms_prefix").to(context -> orElse(((Player) context.getPlayer()).getOrNull(DataKeys.BungeePerms_Prefix), ""));
+        bind("bungeeperms_suffix").to(context -> orElse(((Player) context.getPlayer()).getOrNull(DataKeys.BungeePerms_Suffix), ""));
+        bind("bungeeperms_group").to(context -> orElse(((Player) context.getPlayer()).getOrNull(DataKeys.BungeePerms_PrimaryGroup), ""));
+        bind("clientVersion").to(context -> orElse(((Player) context.getPlayer()).getOrNull(DataKeys.ClientVersion), "unknown"));
+        bind("ping").to(context -> Integer.toString(context.getPlayer().getPing()));
         bind("group").to(context -> BungeeTabListPlus.getInstance().getPermissionManager().getMainGroup(context.getPlayer()));
         bind("uuid").to(context -> context.getPlayer().getUniqueID().toString());
         bind("internalServerName").to(context -> context.getServer().map(ServerInfo::getName).orElse(""));
@@ -144,7 +142,7 @@ public class BasicPlaceholders extends PlaceholderProvider {
         });
         bind("other_count").to(context -> {
             try {
-                return String.format("%d", context.getOtherPlayerCount());
+                return Integer.toString(context.getOtherPlayerCount());
             } catch (IllegalStateException ignored) {
                 // so someone is stupid enough to use {other_count} at some place
                 // that is not in morePlayerLines
@@ -153,4 +151,8 @@ public class BasicPlaceholders extends PlaceholderProvider {
         });
         bind("newline").to(context -> "\n");
     }
+
+    private static String orElse(String value, String other) {
+        return value != null ? value : other;
+    }
 }
@@ -23,12 +23,16 @@ import codecrafter47.bungeetablistplus.BungeeTabListPlus;
 import codecrafter47.bungeetablistplus.api.bungee.placeholder.PlaceholderProvider;
 import codecrafter47.bungeetablistplus.data.DataKey;
 import codecrafter47.bungeetablistplus.data.DataKeys;
+import codecrafter47.bungeetablistplus.data.DoubleDataKey;
+import codecrafter47.bungeetablistplus.data.IntDataKey;
 import codecrafter47.bungeetablistplus.player.ConnectedPlayer;
 import codecrafter47.bungeetablistplus.player.Player;
 import net.md_5.bungee.api.config.ServerInfo;
 
 import java.util.Optional;
+import java.util.function.DoubleFunction;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 public class BukkitPlaceholders extends PlaceholderProvider {
     @Override
@@ -57,7 +61,7 @@ public class BukkitPlaceholders extends PlaceholderProvider {
         }).orElse("-"));
         addBukkitBridgePlaceholder("factionName", DataKeys.Factions_FactionName);
         addBukkitBridgePlaceholder("MVWorldAlias", DataKeys.Multiverse_WorldAlias);
-        addBukkitBridgePlaceholder("onlineFactionMembers", DataKeys.Factions_OnlineFactionMembers, num -> num.orElse(-1).toString());
+        addBukkitBridgeIntPlaceholder("onlineFactionMembers", DataKeys.Factions_OnlineFactionMembers, -1, Integer::toString);
         addBukkitBridgePlaceholder("factionsWhere", DataKeys.Factions_FactionsWhere);
         addBukkitBridgePlaceholder("factionPower", DataKeys.Factions_FactionPower);
         addBukkitBridgePlaceholder("factionsPlayerPower", DataKeys.Factions_PlayerPower);
@@ -75,18 +79,34 @@ public class BukkitPlaceholders extends PlaceholderProvider {
         addBukkitBridgePlaceholder("vault_group", DataKeys.Vault_PermissionGroup);
         addBukkitBridgePlaceholder("vault_prefix", DataKeys.Vault_Prefix);
         addBukkitBridgePlaceholder("vault_suffix", DataKeys.Vault_Suffix);
-        addBukkitBridgePlaceholder("health", DataKeys.Health, health -> health.map(h -> String.format("%1.1f", h)).orElse("-"));
-        addBukkitBridgePlaceholder("maxHealth", DataKeys.MaxHealth, health -> health.map(h -> String.format("%1.1f", h)).orElse("-"));
-        addBukkitBridgePlaceholder("posX", DataKeys.PosX, pos -> pos.map(d -> String.format("%1.0f", d)).orElse(""));
-        addBukkitBridgePlaceholder("posY", DataKeys.PosY, pos -> pos.map(d -> String.format("%1.0f", d)).orElse(""));
-        addBukkitBridgePlaceholder("posZ", DataKeys.PosZ, pos -> pos.map(d -> String.format("%1.0f", d)).orElse(""));
+        addBukkitBridgeDoublePlaceholder("health", DataKeys.Health, "-", h -> String.format("%1.1f", h));
+        addBukkitBridgeDoublePlaceholder("maxHealth", DataKeys.MaxHealth, "-", h -> String.format("%1.1f", h));
+        addBukkitBridgeDoublePlaceholder("posX", DataKeys.PosX, "", d -> String.format("%1.0f", d));
+        addBukkitBridgeDoublePlaceholder("posY", DataKeys.PosY, "", d -> String.format("%1.0f", d));
+        addBukkitBridgeDoublePlaceholder("posZ", DataKeys.PosZ, "", d -> String.format("%1.0f", d));
         addBukkitBridgePlaceholder("XP", DataKeys.XP, xp -> xp.map(f -> String.format("%1.2f", f)).orElse(""));
         addBukkitBridgePlaceholder("totalXP", DataKeys.TotalXP);
-        addBukkitBridgePlaceholder("level", DataKeys.Level, level -> level.orElse(-1).toString());
+        addBukkitBridgeIntPlaceholder("level", DataKeys.Level, -1, Integer::toString);
         addBukkitBridgePlaceholder("playerPoints", DataKeys.PlayerPoints_Points);
         addBukkitBridgeServerPlaceholder("currency", DataKeys.Vault_CurrencyNameSingular);
         addBukkitBridgeServerPlaceholder("currencyPl", DataKeys.Vault_CurrencyNamePlural);
-        addBukkitBridgeServerPlaceholder("tps", DataKeys.TPS, tps -> tps.map(d -> String.format("%1.1f", d)).orElse(""));
+        Function<Optional<Double>, String> oneDecimal = value -> value.map(d -> String.format("%1.1f", d)).orElse("");
+        addBukkitBridgeServerPlaceholder("tps", DataKeys.TPS, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_mean_5s", DataKeys.MSPT_Mean_5s, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p50_5s", DataKeys.MSPT_P50_5s, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p95_5s", DataKeys.MSPT_P95_5s, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p99_5s", DataKeys.MSPT_P99_5s, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_max_5s", DataKeys.MSPT_Max_5s, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_mean_1m", DataKeys.MSPT_Mean_1m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p50_1m", DataKeys.MSPT_P50_1m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p95_1m", DataKeys.MSPT_P95_1m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p99_1m", DataKeys.MSPT_P99_1m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_max_1m", DataKeys.MSPT_Max_1m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_mean_5m", DataKeys.MSPT_Mean_5m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p50_5m", DataKeys.MSPT_P50_5m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p95_5m", DataKeys.MSPT_P95_5m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_p99_5m", DataKeys.MSPT_P99_5m, oneDecimal);
+        addBukkitBridgeServerPlaceholder("mspt_max_5m", DataKeys.MSPT_Max_5m, oneDecimal);
         bind("tabName").to(context -> {
             Optional<String> tabName = ((Player) context.getPlayer()).get(DataKeys.PlayerListName);
             if (tabName.isPresent()) {
@@ -106,6 +126,17 @@ public class BukkitPlaceholders extends PlaceholderProvider {
         bind(name).to(context -> toString.apply(((Player) context.getPlayer()).get(dataKey)));
     }
 
+    public void addBukkitBridgeIntPlaceholder(String name, IntDataKey dataKey, int defaultValue, IntFunction<String> toString) {
+        bind(name).to(context -> toString.apply(((Player) context.getPlayer()).getInt(dataKey, defaultValue)));
+    }
+
+    public void addBukkitBridgeDoublePlaceholder(String name, DoubleDataKey dataKey, String absent, DoubleFunction<String> toString) {
+        bind(name).to(context -> {
+            double value = ((Player) context.getPlayer()).getDouble(dataKey, Double.NaN);
+            return Double.isNaN(value) ? absent : toString.apply(value);
+        });
+    }
+
     public <T> void addBukkitBridgeServerPlaceholder(String name, DataKey<T> dataKey) {
         addBukkitBridgeServerPlaceholder(name, dataKey, t -> t.map(Object::toString).orElse(""));
     }
@@ -33,8 +33,8 @@ public class ConditionalPlaceholders extends PlaceholderProvider {
     @Override
     public void setup() {
         bind("insertIfGamemode3").withTemplateArgs().to((context, args) -> context.getPlayer().getGameMode() == 3 ? args : SlotTemplate.empty());
-        bind("insertIfAFK").withTemplateArgs().to((context, args) -> ((Player) context.getPlayer()).get(DataKeys.Essentials_IsAFK).orElse(false) ? args : SlotTemplate.empty());
-        bind("insertIfNotAFK").withTemplateArgs().to((context, args) -> !((Player) context.getPlayer()).get(DataKeys.Essentials_IsAFK).orElse(false) ? args : SlotTemplate.empty());
+        bind("insertIfAFK").withTemplateArgs().to((context, args) -> Boolean.TRUE.equals(((Player) context.getPlayer()).getOrNull(DataKeys.Essentials_IsAFK)) ? args : SlotTemplate.empty());
+        bind("insertIfNotAFK").withTemplateArgs().to((context, args) -> !Boolean.TRUE.equals(((Player) context.getPlayer()).getOrNull(DataKeys.Essentials_IsAFK)) ? args : SlotTemplate.empty());
         bind("insertIfHidden").withTemplateArgs().to((context, args) -> BungeeTabListPlus.isHidden((Player) context.getPlayer()) ? args : SlotTemplate.empty());
         bind("insertIfServersSame").withTemplateArgs().to((context, args) -> {
             Optional<ServerGroup> serverGroup = context.getServerGroup();
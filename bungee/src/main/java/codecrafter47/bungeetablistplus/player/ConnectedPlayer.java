@@ -25,6 +25,9 @@ import codecrafter47.bungeetablistplus.bridge.BukkitBridge;
 import codecrafter47.bungeetablistplus.common.Constants;
 import codecrafter47.bungeetablistplus.data.DataCache;
 import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DoubleDataKey;
+import codecrafter47.bungeetablistplus.data.IntDataKey;
+import codecrafter47.bungeetablistplus.managers.DataDependencyTracker;
 import codecrafter47.bungeetablistplus.protocol.PacketHandler;
 import codecrafter47.bungeetablistplus.skin.PlayerSkin;
 import codecrafter47.bungeetablistplus.tablisthandler.LegacyTabList;
@@ -44,7 +47,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -60,8 +62,12 @@ public class ConnectedPlayer implements Player {
     @Setter
     private BukkitBridge.BukkitData bukkitData;
 
+    /**
+     * Updated by the {@link codecrafter47.bungeetablistplus.managers.DataManager} in its own thread, listeners are
+     * notified in the main thread.
+     */
     @Getter
-    private DataCache data = new DataCache();
+    private DataCache data = new DataCache(BungeeTabListPlus.getInstance()::runInMainThread);
 
     public ConnectedPlayer(ProxiedPlayer player) {
         this.player = player;
@@ -121,33 +127,63 @@ public class ConnectedPlayer implements Player {
     }
 
     @Override
-    public <T> Optional<T> get(DataKey<T> key) {
+    public <T> T getOrNull(DataKey<T> key) {
+        DataDependencyTracker<ProxiedPlayer> dependencyTracker = BungeeTabListPlus.getInstance().getDataDependencyTracker();
         if (key.isBungee()) {
-            return data.getValue(key);
+            dependencyTracker.recordAccess(data);
+            return data.getRawValue(key);
         }
         if (key.getScope() == DataKey.Scope.SERVER) {
-            return getServer().flatMap(server -> BungeeTabListPlus.getInstance().getBridge().get(server, key));
+            Server server = player.getServer();
+            return server != null ? BungeeTabListPlus.getInstance().getBridge().getOrNull(server.getInfo(), key) : null;
         }
-        Optional<T> value = bukkitData.getValue(key);
-        if (!value.isPresent()) {
-            Set<DataKey> requestedData = bukkitData.getRequestedData();
-            if (!requestedData.contains(key)) {
-                requestedData.add(key);
-                try {
-                    ByteArrayOutputStream os = new ByteArrayOutputStream();
-                    ObjectOutputStream out = new ObjectOutputStream(os);
-                    out.writeUTF(Constants.subchannelRequestPlayerVariable);
-                    out.writeObject(key);
-                    out.close();
-                    Optional.ofNullable(player.getServer()).ifPresent(server -> server.sendData(Constants.channel, os.toByteArray()));
-                } catch (IOException ex) {
-                    BungeeTabListPlus.getInstance().getLogger().log(Level.SEVERE, "Error while requesting data from bukkit", ex);
-                }
-            }
+        dependencyTracker.recordAccess(bukkitData);
+        T value = bukkitData.getRawValue(key);
+        if (bukkitData.renewLease(key, value == null)) {
+            requestBukkitData(key);
         }
         return value;
     }
 
+    @Override
+    public int getInt(IntDataKey key, int defaultValue) {
+        if (key.getScope() == DataKey.Scope.SERVER) {
+            return Player.super.getInt(key, defaultValue);
+        }
+        DataCache cache = key.isBungee() ? data : bukkitData;
+        BungeeTabListPlus.getInstance().getDataDependencyTracker().recordAccess(cache);
+        if (!key.isBungee() && bukkitData.renewLease(key, !cache.contains(key))) {
+            requestBukkitData(key);
+        }
+        return cache.getInt(key, defaultValue);
+    }
+
+    @Override
+    public double getDouble(DoubleDataKey key, double defaultValue) {
+        if (key.getScope() == DataKey.Scope.SERVER) {
+            return Player.super.getDouble(key, defaultValue);
+        }
+        DataCache cache = key.isBungee() ? data : bukkitData;
+        BungeeTabListPlus.getInstance().getDataDependencyTracker().recordAccess(cache);
+        if (!key.isBungee() && bukkitData.renewLease(key, !cache.contains(key))) {
+            requestBukkitData(key);
+        }
+        return cache.getDouble(key, defaultValue);
+    }
+
+    private void requestBukkitData(DataKey<?> key) {
+        try {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(os);
+            out.writeUTF(Constants.subchannelRequestPlayerVariable);
+            out.writeObject(key);
+            out.close();
+            Optional.ofNullable(player.getServer()).ifPresent(server -> server.sendData(Constants.channel, os.toByteArray()));
+        } catch (IOException ex) {
+            BungeeTabListPlus.getInstance().getLogger().log(Level.SEVERE, "Error while requesting data from bukkit", ex);
+        }
+    }
+
     public <T> void registerDataChangeListener(DataKey<T> key, Consumer<T> listener) {
         if (key.isBungee()) {
             data.registerValueChangeListener(key, listener);
@@ -107,11 +107,11 @@ public class FakePlayer implements Player, codecrafter47.bungeetablistplus.api.b
     }
 
     @Override
-    public <T> Optional<T> get(DataKey<T> key) {
+    public <T> T getOrNull(DataKey<T> key) {
         ConnectedPlayer player = BungeeTabListPlus.getInstance().getConnectedPlayerManager().getPlayerIfPresent(getName());
         if (player != null) {
-            return player.get(key);
+            return player.getOrNull(key);
         }
-        return Optional.empty();
+        return null;
     }
 }
@@ -22,6 +22,7 @@ package codecrafter47.bungeetablistplus.player;
 import codecrafter47.bungeetablistplus.BungeeTabListPlus;
 import codecrafter47.bungeetablistplus.api.bungee.FakePlayerManager;
 import codecrafter47.bungeetablistplus.api.bungee.IPlayer;
+import com.google.common.collect.ImmutableList;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.plugin.Plugin;
 
@@ -38,6 +39,7 @@ import java.util.logging.Level;
 
 public class FakePlayerManagerImpl implements IPlayerProvider, FakePlayerManager {
     private List<FakePlayer> online = new CopyOnWriteArrayList<>();
+    private volatile List<IPlayer> playerList = Collections.emptyList();
     private List<String> offline;
     private final Plugin plugin;
     private boolean randomJoinLeaveEventsEnabled = true;
@@ -72,9 +74,11 @@ public class FakePlayerManagerImpl implements IPlayerProvider, FakePlayerManager
                     FakePlayer player = new FakePlayer(name, new ArrayList<>(plugin.getProxy().getServers().values()).get((int) (Math.random() * plugin.getProxy().getServers().values().size())), true);
                     offline.remove(name);
                     online.add(player);
+                    updatePlayerList();
                 } else if (online.size() > 0) {
                     // remove player
                     offline.add(online.remove((int) (online.size() * Math.random())).getName());
+                    updatePlayerList();
                 }
             }
         } catch (Throwable th) {
@@ -86,11 +90,16 @@ public class FakePlayerManagerImpl implements IPlayerProvider, FakePlayerManager
         offline = new ArrayList<>(BungeeTabListPlus.getInstance().getConfigManager().getMainConfig().fakePlayers);
         sanitazeFakePlayerNames();
         online = new CopyOnWriteArrayList<>();
+        updatePlayerList();
         for (int i = offline.size(); i > 0; i--) {
             triggerRandomEvent();
         }
     }
 
+    private void updatePlayerList() {
+        playerList = ImmutableList.<IPlayer>copyOf(online);
+    }
+
     private void sanitazeFakePlayerNames() {
         for (Iterator<?> iterator = offline.iterator(); iterator.hasNext(); ) {
             Object name = iterator.next();
@@ -103,7 +112,7 @@ public class FakePlayerManagerImpl implements IPlayerProvider, FakePlayerManager
 
     @Override
     public Collection<IPlayer> getPlayers() {
-        return Collections.unmodifiableCollection(online);
+        return playerList;
     }
 
     @Override
@@ -125,6 +134,7 @@ public class FakePlayerManagerImpl implements IPlayerProvider, FakePlayerManager
     public codecrafter47.bungeetablistplus.api.bungee.tablist.FakePlayer createFakePlayer(String name, ServerInfo server) {
         FakePlayer fakePlayer = new FakePlayer(name, server, false);
         online.add(fakePlayer);
+        updatePlayerList();
         return fakePlayer;
     }
 
@@ -132,6 +142,7 @@ public class FakePlayerManagerImpl implements IPlayerProvider, FakePlayerManager
     public void removeFakePlayer(codecrafter47.bungeetablistplus.api.bungee.tablist.FakePlayer fakePlayer) {
         FakePlayer player = (FakePlayer) fakePlayer;
         if (online.remove(player)) {
+            updatePlayerList();
             if (BungeeTabListPlus.getInstance().getConfigManager().getMainConfig().fakePlayers.contains(player.getName())) {
                 offline.add(player.getName());
             }
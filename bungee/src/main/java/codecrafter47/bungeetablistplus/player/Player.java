@@ -21,10 +21,32 @@ package codecrafter47.bungeetablistplus.player;
 
 import codecrafter47.bungeetablistplus.api.bungee.IPlayer;
 import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DoubleDataKey;
+import codecrafter47.bungeetablistplus.data.IntDataKey;
 
 import java.util.Optional;
 
 public interface Player extends IPlayer {
 
-    <T> Optional<T> get(DataKey<T> key);
+    default <T> Optional<T> get(DataKey<T> key) {
+        return Optional.ofNullable(getOrNull(key));
+    }
+
+    /**
+     * Get the value of a data key without wrapping it in an {@link Optional}.
+     *
+     * @param key the data key
+     * @return the value or null if not present
+     */
+    <T> T getOrNull(DataKey<T> key);
+
+    default int getInt(IntDataKey key, int defaultValue) {
+        Integer value = getOrNull(key);
+        return value != null ? value : defaultValue;
+    }
+
+    default double getDouble(DoubleDataKey key, double defaultValue) {
+        Double value = getOrNull(key);
+        return value != null ? value : defaultValue;
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.player;
+
+import codecrafter47.bungeetablistplus.api.bungee.IPlayer;
+
+import java.util.List;
+
+/**
+ * An immutable view of all players known to the plugin at some point in time.
+ * <p>
+ * A new snapshot with a higher epoch is created whenever the set of players changes, so
+ * the epoch can be used as a cache key for anything computed from the player list.
+ */
+public final class PlayerSnapshot {
+    private final long epoch;
+    private final List<IPlayer> players;
+
+    public PlayerSnapshot(long epoch, List<IPlayer> players) {
+        this.epoch = epoch;
+        this.players = players;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public List<IPlayer> getPlayers() {
+        return players;
+    }
+}
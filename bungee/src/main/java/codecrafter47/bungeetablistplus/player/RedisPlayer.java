@@ -47,6 +47,7 @@ public class RedisPlayer implements Player {
 
     public RedisPlayer(UUID uuid) {
         this.uuid = uuid;
+        BungeeTabListPlus.getInstance().trackDataChanges(data);
         ProxyServer.getInstance().getScheduler().runAsync(BungeeTabListPlus.getInstance().getPlugin(), () -> name = RedisBungee.getApi().getNameFromUuid(RedisPlayer.this.uuid));
     }
 
@@ -99,12 +100,14 @@ public class RedisPlayer implements Player {
     }
 
     @Override
-    public <T> Optional<T> get(DataKey<T> key) {
+    public <T> T getOrNull(DataKey<T> key) {
         if (key.getScope() == DataKey.Scope.SERVER) {
-            return getServer().flatMap(server -> BungeeTabListPlus.getInstance().getBridge().get(server, key));
+            ServerInfo server = getServer().orElse(null);
+            return server != null ? BungeeTabListPlus.getInstance().getBridge().getOrNull(server, key) : null;
         }
-        Optional<T> value = data.getValue(key);
-        if (!value.isPresent() && !requestedData.contains(key)) {
+        BungeeTabListPlus.getInstance().getDataDependencyTracker().recordAccess(data);
+        T value = data.getRawValue(key);
+        if (value == null && !requestedData.contains(key)) {
             BungeeTabListPlus.getInstance().getRedisPlayerManager().request(uuid, key);
             requestedData.add(key);
         }
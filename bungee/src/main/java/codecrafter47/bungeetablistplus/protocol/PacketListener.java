@@ -20,55 +20,132 @@
 package codecrafter47.bungeetablistplus.protocol;
 
 import codecrafter47.bungeetablistplus.BungeeTabListPlus;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import net.md_5.bungee.ServerConnection;
 import net.md_5.bungee.protocol.DefinedPacket;
 import net.md_5.bungee.protocol.PacketWrapper;
+import net.md_5.bungee.protocol.Protocol;
 import net.md_5.bungee.protocol.ProtocolConstants;
 import net.md_5.bungee.protocol.packet.PlayerListHeaderFooter;
 import net.md_5.bungee.protocol.packet.PlayerListItem;
 import net.md_5.bungee.protocol.packet.Team;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 public class PacketListener extends MessageToMessageDecoder<PacketWrapper> {
+    private static final byte TYPE_OTHER = 0;
+    private static final byte TYPE_TEAM = 1;
+    private static final byte TYPE_PLAYER_LIST_ITEM = 2;
+    private static final byte TYPE_PLAYER_LIST_HEADER_FOOTER = 3;
+
+    // all packets we are interested in have an id that is encoded as a single byte
+    private static final int MAX_PACKET_ID = 0x7f;
+
+    private static final Map<Integer, byte[]> packetTypesByVersion = new ConcurrentHashMap<>();
+
     private final ServerConnection connection;
     private final PacketHandler handler;
     private final int protocolVersion;
+    private final byte[] packetTypes;
 
     public PacketListener(ServerConnection connection, PacketHandler handler, int protocolVersion) {
         this.connection = connection;
         this.handler = handler;
         this.protocolVersion = protocolVersion;
+        this.packetTypes = getPacketTypes(protocolVersion);
+    }
+
+    /**
+     * Get a table mapping packet ids to the type of packet for the given protocol version.
+     *
+     * @param protocolVersion the protocol version
+     * @return the table or null if the packet ids could not be determined
+     */
+    private static byte[] getPacketTypes(int protocolVersion) {
+        byte[] packetTypes = packetTypesByVersion.get(protocolVersion);
+        if (packetTypes == null) {
+            try {
+                packetTypes = new byte[MAX_PACKET_ID + 1];
+                for (int id = 0; id <= MAX_PACKET_ID; id++) {
+                    DefinedPacket packet = Protocol.GAME.TO_CLIENT.createPacket(id, protocolVersion);
+                    if (packet instanceof Team) {
+                        packetTypes[id] = TYPE_TEAM;
+                    } else if (packet instanceof PlayerListItem) {
+                        packetTypes[id] = TYPE_PLAYER_LIST_ITEM;
+                    } else if (packet instanceof PlayerListHeaderFooter) {
+                        packetTypes[id] = TYPE_PLAYER_LIST_HEADER_FOOTER;
+                    }
+                }
+                packetTypesByVersion.put(protocolVersion, packetTypes);
+            } catch (RuntimeException ex) {
+                BungeeTabListPlus.getInstance().getLogger().log(Level.WARNING, "Failed to resolve packet ids for protocol version " + protocolVersion, ex);
+                return null;
+            }
+        }
+        return packetTypes;
+    }
+
+    private byte getPacketType(PacketWrapper packetWrapper) {
+        if (packetTypes != null) {
+            int id = packetWrapper.buf.getUnsignedByte(packetWrapper.buf.readerIndex());
+            return id <= MAX_PACKET_ID ? packetTypes[id] : TYPE_OTHER;
+        }
+        if (packetWrapper.packet instanceof Team) {
+            return TYPE_TEAM;
+        } else if (packetWrapper.packet instanceof PlayerListItem) {
+            return TYPE_PLAYER_LIST_ITEM;
+        } else if (packetWrapper.packet instanceof PlayerListHeaderFooter) {
+            return TYPE_PLAYER_LIST_HEADER_FOOTER;
+        }
+        return TYPE_OTHER;
     }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, PacketWrapper packetWrapper, List<Object> out) throws Exception {
         try {
-            if (!connection.isObsolete()) {
-                if (packetWrapper.packet != null) {
+            if (packetWrapper.packet == null || connection.isObsolete()) {
+                out.add(packetWrapper);
+                return;
+            }
 
-                    PacketListenerResult result = PacketListenerResult.PASS;
+            PacketListenerResult result;
 
-                    if (packetWrapper.packet instanceof Team) {
-                        result = handler.onTeamPacket((Team) packetWrapper.packet);
-                    } else if (packetWrapper.packet instanceof PlayerListItem) {
-                        result = handler.onPlayerListPacket((PlayerListItem) packetWrapper.packet);
-                    } else if (packetWrapper.packet instanceof PlayerListHeaderFooter) {
-                        result = handler.onPlayerListHeaderFooterPacket((PlayerListHeaderFooter) packetWrapper.packet);
-                    }
+            switch (getPacketType(packetWrapper)) {
+                case TYPE_TEAM:
+                    result = handler.onTeamPacket((Team) packetWrapper.packet);
+                    break;
+                case TYPE_PLAYER_LIST_ITEM:
+                    result = handler.onPlayerListPacket((PlayerListItem) packetWrapper.packet);
+                    break;
+                case TYPE_PLAYER_LIST_HEADER_FOOTER:
+                    result = handler.onPlayerListHeaderFooterPacket((PlayerListHeaderFooter) packetWrapper.packet);
+                    break;
+                default:
+                    out.add(packetWrapper);
+                    return;
+            }
 
-                    if (result == PacketListenerResult.CANCEL) {
-                        return;
-                    } else if (result == PacketListenerResult.MODIFIED) {
-                        int readerIndex = packetWrapper.buf.readerIndex();
-                        DefinedPacket.readVarInt(packetWrapper.buf);
-                        packetWrapper.buf.writerIndex(packetWrapper.buf.readerIndex());
-                        packetWrapper.packet.write(packetWrapper.buf, ProtocolConstants.Direction.TO_CLIENT, protocolVersion);
-                        packetWrapper.buf.readerIndex(readerIndex);
-                    }
+            if (result == PacketListenerResult.CANCEL) {
+                packetWrapper.trySingleRelease();
+                return;
+            } else if (result == PacketListenerResult.MODIFIED) {
+                ByteBuf buf = ctx.alloc().buffer();
+                try {
+                    int packetId = DefinedPacket.readVarInt(packetWrapper.buf);
+                    DefinedPacket.writeVarInt(packetId, buf);
+                    packetWrapper.packet.write(buf, ProtocolConstants.Direction.TO_CLIENT, protocolVersion);
+                } catch (Throwable th) {
+                    buf.release();
+                    throw th;
                 }
+                packetWrapper.trySingleRelease();
+                out.add(new PacketWrapper(packetWrapper.packet, buf));
+                return;
             }
             out.add(packetWrapper);
         } catch (Throwable th) {
@@ -23,6 +23,8 @@ import codecrafter47.bungeetablistplus.protocol.PacketHandler;
 import codecrafter47.bungeetablistplus.protocol.PacketListenerResult;
 import codecrafter47.bungeetablistplus.util.ColorParser;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.Getter;
 import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.protocol.DefinedPacket;
@@ -39,6 +41,9 @@ import java.util.concurrent.ConcurrentHashMap;
 public abstract class AbstractLegacyTabList implements PacketHandler {
     protected static final String[] slotID;
     protected static final Set<String> slotIDSet = new HashSet<>();
+    private static final Cache<String, String[]> splitTextCache = CacheBuilder.newBuilder()
+            .maximumSize(4096)
+            .build();
 
     static {
         slotID = new String[256];
@@ -54,6 +59,8 @@ public abstract class AbstractLegacyTabList implements PacketHandler {
     protected final int maxSize;
     protected int[] clientPing;
     protected String[] clientText;
+    protected String[] clientPrefix;
+    protected String[] clientSuffix;
     protected Map<String, Integer> serverTabList = new ConcurrentHashMap<>();
     protected int clientSize = 0;
     protected int usedSlots = 0;
@@ -63,35 +70,39 @@ public abstract class AbstractLegacyTabList implements PacketHandler {
         this.maxSize = maxSize;
         clientText = new String[maxSize];
         clientPing = new int[maxSize];
+        clientPrefix = new String[maxSize];
+        clientSuffix = new String[maxSize];
     }
 
+    /**
+     * Splits the text into team prefix and suffix. The color of the prefix is carried over to the suffix.
+     * Results are cached as the same texts are usually displayed to all players.
+     */
     private static String[] splitText(String s) {
-        String[] ret = new String[3];
-        int left = s.length();
-        if (left <= 16) {
-            ret[0] = s;
-            ret[1] = "";
-            ret[2] = "";
-        } else {
-            int end = s.charAt(15) == ChatColor.COLOR_CHAR ? 15 : 16;
-            ret[0] = s.substring(0, end);
-            int start = ColorParser.endofColor(s, end);
-            String colors = ColorParser.extractColorCodes(s.substring(0, start));
-            end = start + 16 - colors.length();
-            if (end >= s.length()) {
-                end = s.length();
-            }
-            ret[1] = colors + s.substring(start, end);
-            start = end;
-            end += 16;
-            if (end >= s.length()) {
-                end = s.length();
-            }
-            ret[2] = s.substring(start, end);
+        String[] ret = splitTextCache.getIfPresent(s);
+        if (ret == null) {
+            ret = splitText0(s);
+            splitTextCache.put(s, ret);
         }
         return ret;
     }
 
+    private static String[] splitText0(String s) {
+        if (s.length() <= 16) {
+            return new String[]{s, ""};
+        }
+        int end = s.charAt(15) == ChatColor.COLOR_CHAR ? 15 : 16;
+        String prefix = s.substring(0, end);
+        int start = ColorParser.endofColor(s, end);
+        String colors = ColorParser.extractColorCodes(s, start);
+        end = start + 16 - colors.length();
+        if (end >= s.length()) {
+            end = s.length();
+        }
+        String suffix = colors.isEmpty() ? s.substring(start, end) : colors.concat(s.substring(start, end));
+        return new String[]{prefix, suffix};
+    }
+
     public void setSize(int size) {
         resize(size);
         clientSize = size;
@@ -173,6 +184,8 @@ public abstract class AbstractLegacyTabList implements PacketHandler {
         t.setSuffix(" ");
         t.setPlayers(new String[]{slotID[row]});
         sendPacket(t);
+        clientPrefix[row] = " ";
+        clientSuffix[row] = " ";
     }
 
     private void updateSlot(int row, String text, int ping, boolean force) {
@@ -189,13 +202,18 @@ public abstract class AbstractLegacyTabList implements PacketHandler {
             }
             if (force || !Objects.equals(text, clientText[row])) {
                 String[] split = splitText(text);
-                Team t = new Team();
-                t.setName(slotID[row]);
-                t.setMode((byte) 2);
-                t.setPrefix(split[0]);
-                t.setDisplayName("");
-                t.setSuffix(split[1]);
-                sendPacket(t);
+                // only send an update if the visible part did change
+                if (force || !split[0].equals(clientPrefix[row]) || !split[1].equals(clientSuffix[row])) {
+                    Team t = new Team();
+                    t.setName(slotID[row]);
+                    t.setMode((byte) 2);
+                    t.setPrefix(split[0]);
+                    t.setDisplayName("");
+                    t.setSuffix(split[1]);
+                    sendPacket(t);
+                    clientPrefix[row] = split[0];
+                    clientSuffix[row] = split[1];
+                }
             }
         }
         clientText[row] = text;
@@ -28,7 +28,6 @@ import codecrafter47.bungeetablistplus.tablisthandler.logic.TabListLogic;
 import codecrafter47.bungeetablistplus.util.ColorParser;
 import codecrafter47.bungeetablistplus.util.FastChat;
 import codecrafter47.bungeetablistplus.util.ReflectionUtil;
-import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.netty.ChannelWrapper;
 
@@ -112,11 +111,7 @@ public abstract class PlayerTablistHandler {
                         String text = slot.getText();
 
                         if (charLimit > 0) {
-                            text = ChatColor.translateAlternateColorCodes('&', text);
-                            text = ColorParser.substringIgnoreColors(text, charLimit);
-                            for (int j = charLimit - ChatColor.stripColor(text).length(); j > 0; j--) {
-                                text += ' ';
-                            }
+                            text = ColorParser.applyCharLimit(text, charLimit);
                         }
 
                         Skin skin = onlineMode ? slot.getSkin() : SkinManager.defaultSkin;
@@ -168,14 +163,7 @@ public abstract class PlayerTablistHandler {
                     if (slot != null) {
                         String text = slot.getText();
 
-                        text = ChatColor.translateAlternateColorCodes('&', text);
-
-                        if (charLimit > 0) {
-                            text = ColorParser.substringIgnoreColors(text, charLimit);
-                            for (int j = charLimit - ChatColor.stripColor(text).length(); j > 0; j--) {
-                                text += ' ';
-                            }
-                        }
+                        text = ColorParser.applyCharLimit(text, charLimit);
 
                         handle.setSlot(i, text, slot.getPing());
                     } else {
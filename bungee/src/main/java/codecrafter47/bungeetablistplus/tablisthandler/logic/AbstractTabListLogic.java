@@ -26,10 +26,6 @@ import codecrafter47.bungeetablistplus.skin.PlayerSkin;
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
-import gnu.trove.map.TObjectIntMap;
-import gnu.trove.map.hash.TObjectIntHashMap;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -46,7 +42,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.Math.min;
 import static net.md_5.bungee.protocol.packet.PlayerListItem.Action.ADD_PLAYER;
@@ -80,7 +75,7 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 		}
 	}
 
-	protected final Map<UUID, TabListItem> serverTabList = new ConcurrentHashMap<>();
+	protected final TabListItemMap serverTabList = new TabListItemMap();
 	protected String serverHeader = null;
 	protected String serverFooter = null;
 
@@ -88,8 +83,11 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 	protected final Map<String, String> playerToTeamMap = new HashMap<>();
 	protected final Map<String, Integer> nameToSlotMap = new HashMap<>();
 
-	protected Multimap<UUID, Integer> skinUuidToSlotMap = MultimapBuilder.hashKeys().linkedListValues().build();
-	protected TObjectIntMap<UUID> uuidToSlotMap = new TObjectIntHashMap<>();
+	// reverse index from skin owner to slot, entries are ordered by skinIndexSequence
+	protected final UUID[] skinIndexOwner = new UUID[80];
+	protected final long[] skinIndexSequence = new long[80];
+	private long skinIndexCounter = 0;
+	protected final UUIDIntMap uuidToSlotMap = new UUIDIntMap(0);
 
 	protected UUID[] clientUuid = new UUID[80];
 	protected String[] clientUsername = new String[80];
@@ -235,8 +233,8 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 				} else {
 					item.setGamemode(0);
 
-					if (uuidToSlotMap.containsKey(item.getUuid()) && skinUuidToSlotMap.containsKey(item.getUuid())
-							&& !skinUuidToSlotMap.get(item.getUuid()).contains(uuidToSlotMap.get(item.getUuid()))) {
+					if (uuidToSlotMap.containsKey(item.getUuid()) && skinIndexContains(item.getUuid())
+							&& !item.getUuid().equals(skinIndexOwner[uuidToSlotMap.get(item.getUuid())])) {
 						// player that was not in correct position updates username + skin
 						// probably changed away from gm 3
 						// move the player slot if he changed await from gm 3
@@ -296,10 +294,11 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 
 	private int findSlotForPlayer(UUID playerUUID) {
 		int targetSlot = -1;
-		for (int i : skinUuidToSlotMap.get(playerUUID)) {
-			if (clientUuid[i] == fakePlayerUUIDs[i]) {
+		// prefer the slot that got the player's skin first
+		for (int i = 0; i < 80; i++) {
+			if (playerUUID.equals(skinIndexOwner[i]) && clientUuid[i] == fakePlayerUUIDs[i]
+					&& (targetSlot == -1 || skinIndexSequence[i] < skinIndexSequence[targetSlot])) {
 				targetSlot = i;
-				break;
 			}
 		}
 		if (targetSlot == -1) {
@@ -615,7 +614,7 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 		packet.setAction(REMOVE_PLAYER);
 
 		PlayerListItem.Item[] items = new PlayerListItem.Item[serverTabList.size()];
-		Iterator<UUID> iterator = serverTabList.keySet().iterator();
+		Iterator<UUID> iterator = serverTabList.keys().iterator();
 		for (int i = 0; i < items.length; i++) {
 			items[i] = item(iterator.next());
 		}
@@ -888,7 +887,7 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 
 	private void rebuildTabList() {
 		Preconditions.checkArgument(size < 80 && size >= 0, "Wrong size: " + size);
-		Set<UUID> realPlayers = new HashSet<>(serverTabList.keySet());
+		Set<UUID> realPlayers = new HashSet<>(serverTabList.keys());
 		boolean isSpectator = serverTabList.containsKey(getUniqueId()) && serverTabList.get(getUniqueId()).getGamemode() == 3;
 		if (isSpectator) {
 			realPlayers.remove(getUniqueId());
@@ -955,11 +954,12 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 			if (clientSkin[index].equals(skin)) {
 				updatePingInternal(index, ping);
 			} else {
-				if (clientSkin[index].getOwner() != null) {
-					skinUuidToSlotMap.remove(clientSkin[index].getOwner(), index);
+				if (clientSkin[index].getOwner() != null && clientSkin[index].getOwner().equals(skinIndexOwner[index])) {
+					skinIndexOwner[index] = null;
 				}
 				if (skin.getOwner() != null) {
-					skinUuidToSlotMap.put(skin.getOwner(), index);
+					skinIndexOwner[index] = skin.getOwner();
+					skinIndexSequence[index] = ++skinIndexCounter;
 				}
 				boolean updated = false;
 				if (skin.getOwner() != null) {
@@ -1053,6 +1053,15 @@ public abstract class AbstractTabListLogic extends TabListHandler {
 		clientFooter = footer;
 	}
 
+	private boolean skinIndexContains(UUID uuid) {
+		for (int i = 0; i < 80; i++) {
+			if (uuid.equals(skinIndexOwner[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private static PlayerListItem.Item item(UUID uuid) {
 		PlayerListItem.Item item1 = new PlayerListItem.Item();
 		item1.setUuid(uuid);
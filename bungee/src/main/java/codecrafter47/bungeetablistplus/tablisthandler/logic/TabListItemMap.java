@@ -0,0 +1,104 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.tablisthandler.logic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The tab list entries sent by the server, stored densely in an array with an {@link UUIDIntMap} as index.
+ * <p>
+ * Modifications are only done by the connection's event loop. Iteration returns a copy so that other
+ * threads can read the entries.
+ */
+final class TabListItemMap {
+    private final UUIDIntMap index = new UUIDIntMap(-1);
+    private UUID[] keys = new UUID[16];
+    private AbstractTabListLogic.TabListItem[] items = new AbstractTabListLogic.TabListItem[16];
+    private int size = 0;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean containsKey(UUID uuid) {
+        return index.containsKey(uuid);
+    }
+
+    AbstractTabListLogic.TabListItem get(UUID uuid) {
+        int i = index.get(uuid);
+        return i >= 0 ? items[i] : null;
+    }
+
+    synchronized void put(UUID uuid, AbstractTabListLogic.TabListItem item) {
+        int i = index.get(uuid);
+        if (i >= 0) {
+            items[i] = item;
+            return;
+        }
+        if (size == items.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            items = Arrays.copyOf(items, size * 2);
+        }
+        keys[size] = uuid;
+        items[size] = item;
+        index.put(uuid, size);
+        size++;
+    }
+
+    synchronized AbstractTabListLogic.TabListItem remove(UUID uuid) {
+        int i = index.remove(uuid);
+        if (i < 0) {
+            return null;
+        }
+        AbstractTabListLogic.TabListItem item = items[i];
+        int last = --size;
+        if (i != last) {
+            keys[i] = keys[last];
+            items[i] = items[last];
+            index.put(keys[i], i);
+        }
+        keys[last] = null;
+        items[last] = null;
+        return item;
+    }
+
+    synchronized void clear() {
+        index.clear();
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+    }
+
+    synchronized List<UUID> keys() {
+        return size == 0 ? Collections.emptyList() : Arrays.asList(Arrays.copyOf(keys, size));
+    }
+
+    synchronized List<AbstractTabListLogic.TabListItem> values() {
+        return size == 0 ? Collections.emptyList() : Arrays.asList(Arrays.copyOf(items, size));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.tablisthandler.logic;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing hash map from {@link UUID} to int. The two longs of the uuid are stored inline,
+ * so neither lookups nor insertions allocate.
+ */
+final class UUIDIntMap {
+    private static final int MIN_CAPACITY = 16;
+
+    private final int noEntryValue;
+    private long[] mostSigBits;
+    private long[] leastSigBits;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size = 0;
+
+    UUIDIntMap(int noEntryValue) {
+        this.noEntryValue = noEntryValue;
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    static int hash(long mostSigBits, long leastSigBits) {
+        long h = (mostSigBits ^ leastSigBits) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @return the index of the key, or the bitwise complement of the index at which it should be inserted
+     */
+    private int indexOf(long msb, long lsb) {
+        int i = hash(msb, lsb) & mask;
+        while (used[i]) {
+            if (mostSigBits[i] == msb && leastSigBits[i] == lsb) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(UUID key) {
+        return indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits()) >= 0;
+    }
+
+    int get(UUID key) {
+        int i = indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        return i >= 0 ? values[i] : noEntryValue;
+    }
+
+    void put(UUID key, int value) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int i = indexOf(msb, lsb);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+        i = ~i;
+        mostSigBits[i] = msb;
+        leastSigBits[i] = lsb;
+        values[i] = value;
+        used[i] = true;
+        if (++size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+    }
+
+    int remove(UUID key) {
+        int i = indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (i < 0) {
+            return noEntryValue;
+        }
+        int value = values[i];
+        size--;
+
+        // shift back following entries of the same cluster instead of leaving a tombstone
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int home = hash(mostSigBits[j], leastSigBits[j]) & mask;
+            boolean inRange = gap < j ? (home > gap && home <= j) : (home > gap || home <= j);
+            if (!inRange) {
+                mostSigBits[gap] = mostSigBits[j];
+                leastSigBits[gap] = leastSigBits[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        used[gap] = false;
+        return value;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMostSigBits = mostSigBits;
+        long[] oldLeastSigBits = leastSigBits;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int j = ~indexOf(oldMostSigBits[i], oldLeastSigBits[i]);
+                mostSigBits[j] = oldMostSigBits[i];
+                leastSigBits[j] = oldLeastSigBits[i];
+                values[j] = oldValues[i];
+                used[j] = true;
+            }
+        }
+    }
+}
@@ -18,11 +18,26 @@
  */
 package codecrafter47.bungeetablistplus.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import net.md_5.bungee.api.ChatColor;
 
 public class ColorParser {
 
+    private static final Cache<String, LimitedText> limitedTextCache = CacheBuilder.newBuilder()
+            .maximumSize(4096)
+            .build();
+
+    private static final ThreadLocal<char[]> limitedTextBuffer = ThreadLocal.withInitial(() -> new char[64]);
+
     public static String extractColorCodes(String s) {
+        return extractColorCodes(s, s.length());
+    }
+
+    /**
+     * Same as {@code extractColorCodes(s.substring(0, end))} without creating the substring.
+     */
+    public static String extractColorCodes(String s, int end) {
         boolean bold = false;
         boolean underlined = false;
         boolean magic = false;
@@ -32,7 +47,7 @@ public class ColorParser {
 
         boolean escaped = false;
 
-        for (int i = 0; i < s.length(); i++) {
+        for (int i = 0; i < end; i++) {
             char ch = s.charAt(i);
             if (escaped) {
                 ChatColor code = ChatColor.getByChar(ch);
@@ -129,4 +144,90 @@ public class ColorParser {
         }
         return ret.toString();
     }
+
+    /**
+     * Translates alternate color codes ('&') and shortens the text to at most charLimit visible
+     * characters, padding it with spaces if it is shorter. Does the same as calling
+     * {@link ChatColor#translateAlternateColorCodes(char, String)}, {@link #substringIgnoreColors(String, int)}
+     * and appending spaces until {@link ChatColor#stripColor(String)} has charLimit characters, but in a single
+     * pass over the text. Results are cached.
+     *
+     * @param text      the text
+     * @param charLimit the number of visible characters, or a value &lt;= 0 to only translate color codes
+     * @return the resulting text
+     */
+    public static String applyCharLimit(String text, int charLimit) {
+        LimitedText cached = limitedTextCache.getIfPresent(text);
+        if (cached != null && cached.charLimit == charLimit) {
+            return cached.result;
+        }
+        String result = applyCharLimit0(text, charLimit);
+        limitedTextCache.put(text, new LimitedText(charLimit, result));
+        return result;
+    }
+
+    private static String applyCharLimit0(String text, int charLimit) {
+        int length = text.length();
+        int capacity = length + Math.max(charLimit, 0);
+        char[] buffer = limitedTextBuffer.get();
+        if (buffer.length < capacity) {
+            buffer = new char[Math.max(capacity, buffer.length * 2)];
+            limitedTextBuffer.set(buffer);
+        }
+
+        int pos = 0;
+        // visible characters as counted by substringIgnoreColors
+        int size = 0;
+        // visible characters as counted by ChatColor.stripColor
+        int visible = 0;
+        boolean escaped = false;
+        boolean stripped = false;
+        for (int i = 0; i < length; i++) {
+            char ch = translatedCharAt(text, i);
+            buffer[pos++] = ch;
+
+            if (stripped) {
+                stripped = false;
+            } else if (ch == ChatColor.COLOR_CHAR && i + 1 < length && ChatColor.ALL_CODES.indexOf(translatedCharAt(text, i + 1)) > -1) {
+                stripped = true;
+            } else {
+                visible++;
+            }
+
+            if (escaped) {
+                escaped = false;
+            } else if (ch == ChatColor.COLOR_CHAR) {
+                escaped = true;
+            } else if (++size == charLimit) {
+                break;
+            }
+        }
+
+        for (int i = charLimit - visible; i > 0; i--) {
+            buffer[pos++] = ' ';
+        }
+
+        return new String(buffer, 0, pos);
+    }
+
+    private static char translatedCharAt(String text, int index) {
+        char ch = text.charAt(index);
+        if (ch == '&' && index + 1 < text.length() && ChatColor.ALL_CODES.indexOf(text.charAt(index + 1)) > -1) {
+            return ChatColor.COLOR_CHAR;
+        }
+        if (index > 0 && text.charAt(index - 1) == '&' && ChatColor.ALL_CODES.indexOf(ch) > -1) {
+            return Character.toLowerCase(ch);
+        }
+        return ch;
+    }
+
+    private static final class LimitedText {
+        private final int charLimit;
+        private final String result;
+
+        private LimitedText(int charLimit, String result) {
+            this.charLimit = charLimit;
+            this.result = result;
+        }
+    }
 }
@@ -19,153 +19,194 @@
 
 package codecrafter47.bungeetablistplus.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import net.md_5.bungee.api.ChatColor;
 
+/**
+ * Converts legacy formatted text into the json format used by the client.
+ * <p>
+ * The conversion is done in a single pass over the legacy text and writes the json directly,
+ * without building intermediate {@link net.md_5.bungee.api.chat.BaseComponent}s. The output is
+ * equivalent to serializing the result of {@link net.md_5.bungee.api.chat.TextComponent#fromLegacyText(String)},
+ * except that urls are kept as plain text instead of getting a click event. The text is only used for the
+ * tab list, where the client ignores click events.
+ */
 public final class FastChat {
     private final static String emptyJsonText = "{\"text\":\"\"}";
 
+    private final static char DEFAULT_ALTERNATE_COLOR_CHAR = '&';
+
+    private final static int CACHE_SIZE = 4096;
+
+    private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Caches the json for texts using the default alternate color char. The same texts are
+     * serialized for every player viewing the tab list.
+     */
+    private final static Cache<String, String> cache = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .build();
+
+    private final static ThreadLocal<StringBuilder> jsonBuilder = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private final static ThreadLocal<StringBuilder> textBuilder = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    private FastChat() {
+    }
+
     public static String legacyTextToJson(String legacyText, char alternateColorChar) {
         if (legacyText.isEmpty()) {
             return emptyJsonText;
         }
-        // evil optimizations
-        StringBuilder builder = new StringBuilder(legacyText.length() + 10);
-        builder.append("{\"text\":\"");
-        for (int i = 0; i < legacyText.length(); ++i) {
-            char c = legacyText.charAt(i);
-            if (i + 1 < legacyText.length() && (c == ChatColor.COLOR_CHAR || (c == alternateColorChar && "0123456789AaBbCcDdEeFfKkLlMmNnOoRr".indexOf(legacyText.charAt(i + 1)) > -1))) {
-                builder.append(ChatColor.COLOR_CHAR);
-                c = legacyText.charAt(++i);
-            }
-            if (c == '"') {
-                builder.append("\\\"");
-            } else if (c == '\\') {
-                builder.append("\\\\");
-            } else {
-                builder.append(c);
-            }
+        if (alternateColorChar != DEFAULT_ALTERNATE_COLOR_CHAR) {
+            return convert(legacyText, alternateColorChar);
         }
-        builder.append("\"}");
-        return new String(builder);
-        /*
-        StringBuilder jsonBuilder = new StringBuilder("{\"text\":\"\",\"extra\":[");
-        StringBuilder builder = new StringBuilder();
+        String json = cache.getIfPresent(legacyText);
+        if (json == null) {
+            json = convert(legacyText, alternateColorChar);
+            cache.put(legacyText, json);
+        }
+        return json;
+    }
+
+    private static String convert(String legacyText, char alternateColorChar) {
+        StringBuilder json = jsonBuilder.get();
+        StringBuilder text = textBuilder.get();
+        json.setLength(0);
+        text.setLength(0);
+
         boolean bold = false;
         boolean italic = false;
         boolean underlined = false;
         boolean strikethrough = false;
         boolean obfuscated = false;
-        boolean first = true;
-        ChatColor color = ChatColor.WHITE;
+        ChatColor color = null;
+        int components = 0;
 
-        for (int i = 0; i < legacyText.length(); ++i) {
+        int length = legacyText.length();
+        for (int i = 0; i < length; ++i) {
             char c = legacyText.charAt(i);
-            if (i + 1 < legacyText.length() && (c == ChatColor.COLOR_CHAR || (c == alternateColorChar && "0123456789AaBbCcDdEeFfKkLlMmNnOoRr".indexOf(legacyText.charAt(i + 1)) > -1))) {
-                ++i;
-                c = legacyText.charAt(i);
-                if (c >= 65 && c <= 90) {
-                    c = (char) (c + 32);
+            if (i + 1 < length && (c == ChatColor.COLOR_CHAR || (c == alternateColorChar && ChatColor.ALL_CODES.indexOf(legacyText.charAt(i + 1)) > -1))) {
+                c = legacyText.charAt(++i);
+                if (c >= 'A' && c <= 'Z') {
+                    c += 32;
+                }
+                ChatColor format = ChatColor.getByChar(c);
+                if (format == null) {
+                    continue;
                 }
 
-                if (builder.length() > 0) {
-                    if (first) {
-                        first = false;
-                    } else {
-                        jsonBuilder.append(",");
-                    }
-                    jsonBuilder.append("{\"text\":\"").append(builder.toString()).append("\"");
-                    jsonBuilder.append(",\"color\":\"").append(color.getName()).append("\"");
-                    if (bold) {
-                        jsonBuilder.append(",\"bold\":\"true\"");
-                    }
-                    if (italic) {
-                        jsonBuilder.append(",\"italic\":\"true\"");
-                    }
-                    if (underlined) {
-                        jsonBuilder.append(",\"underlined\":\"true\"");
-                    }
-                    if (strikethrough) {
-                        jsonBuilder.append(",\"strikethrough\":\"true\"");
-                    }
-                    if (obfuscated) {
-                        jsonBuilder.append(",\"obfuscated\":\"true\"");
-                    }
-                    jsonBuilder.append("}");
-                    builder = new StringBuilder();
+                if (text.length() > 0) {
+                    appendComponent(json, components++, text, color, bold, italic, underlined, strikethrough, obfuscated);
+                    text.setLength(0);
                 }
 
-                ChatColor var10 = ChatColor.getByChar(c);
-                if (var10 != null) {
-                    switch (var10) {
-                        case BOLD:
-                            bold = true;
-                            break;
-                        case ITALIC:
-                            italic = true;
-                            break;
-                        case UNDERLINE:
-                            underlined = true;
-                            break;
-                        case STRIKETHROUGH:
-                            strikethrough = true;
-                            break;
-                        case MAGIC:
-                            obfuscated = true;
-                            break;
-                        case RESET:
-                            var10 = ChatColor.WHITE;
-                        default:
-                            bold = false;
-                            italic = false;
-                            underlined = false;
-                            strikethrough = false;
-                            obfuscated = false;
-                            color = var10;
-                    }
+                switch (format) {
+                    case BOLD:
+                        bold = true;
+                        break;
+                    case ITALIC:
+                        italic = true;
+                        break;
+                    case UNDERLINE:
+                        underlined = true;
+                        break;
+                    case STRIKETHROUGH:
+                        strikethrough = true;
+                        break;
+                    case MAGIC:
+                        obfuscated = true;
+                        break;
+                    case RESET:
+                        format = ChatColor.WHITE;
+                    default:
+                        bold = false;
+                        italic = false;
+                        underlined = false;
+                        strikethrough = false;
+                        obfuscated = false;
+                        color = format;
                 }
             } else {
-                if (c == '"') {
-                    builder.append("\\\"");
-                } else if (c == '\\') {
-                    builder.append("\\\\");
-                } else {
-                    builder.append(c);
-                }
+                text.append(c);
             }
         }
 
-        if (builder.length() > 0) {
-            if (first) {
-                first = false;
-            } else {
-                jsonBuilder.append(",");
-            }
-            jsonBuilder.append("{\"text\":\"").append(builder.toString()).append("\"");
-            jsonBuilder.append(",\"color\":\"").append(color.getName()).append("\"");
-            if (bold) {
-                jsonBuilder.append(",\"bold\":\"true\"");
-            }
-            if (italic) {
-                jsonBuilder.append(",\"italic\":\"true\"");
-            }
-            if (underlined) {
-                jsonBuilder.append(",\"underlined\":\"true\"");
-            }
-            if (strikethrough) {
-                jsonBuilder.append(",\"strikethrough\":\"true\"");
-            }
-            if (obfuscated) {
-                jsonBuilder.append(",\"obfuscated\":\"true\"");
-            }
-            jsonBuilder.append("}");
+        if (text.length() > 0) {
+            appendComponent(json, components++, text, color, bold, italic, underlined, strikethrough, obfuscated);
         }
 
-        if (first) {
+        if (components == 0) {
             return emptyJsonText;
         }
 
-        jsonBuilder.append("]}");
-        return jsonBuilder.toString();
-        */
+        json.append("]}");
+        return json.toString();
+    }
+
+    private static void appendComponent(StringBuilder json, int index, CharSequence text, ChatColor color, boolean bold, boolean italic, boolean underlined, boolean strikethrough, boolean obfuscated) {
+        json.append(index == 0 ? "{\"text\":\"\",\"extra\":[" : ",");
+        json.append("{\"text\":\"");
+        appendEscaped(json, text);
+        json.append('"');
+        if (color != null) {
+            json.append(",\"color\":\"").append(color.getName()).append('"');
+        }
+        if (bold) {
+            json.append(",\"bold\":true");
+        }
+        if (italic) {
+            json.append(",\"italic\":true");
+        }
+        if (underlined) {
+            json.append(",\"underlined\":true");
+        }
+        if (strikethrough) {
+            json.append(",\"strikethrough\":true");
+        }
+        if (obfuscated) {
+            json.append(",\"obfuscated\":true");
+        }
+        json.append('}');
+    }
+
+    private static void appendEscaped(StringBuilder json, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                case '\b':
+                    json.append("\\b");
+                    break;
+                case '\f':
+                    json.append("\\f");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        json.append("\\u")
+                                .append(HEX_DIGITS[(c >> 12) & 0xf])
+                                .append(HEX_DIGITS[(c >> 8) & 0xf])
+                                .append(HEX_DIGITS[(c >> 4) & 0xf])
+                                .append(HEX_DIGITS[c & 0xf]);
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel. Elements are scheduled a number of ticks into the future and
+ * {@link #advance(Consumer)} hands out only the elements that are due, so the cost
+ * of a tick is proportional to the number of due elements.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <T> element type
+ */
+public class TimerWheel<T> {
+    private final List<Entry<T>>[] buckets;
+    private final int mask;
+    private long tick = 0;
+    private int size = 0;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two. Delays larger than this
+     *                  take multiple rounds of the wheel.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int wheelSize) {
+        Preconditions.checkArgument(wheelSize > 0, "wheelSize must be positive");
+        int n = Integer.highestOneBit(wheelSize);
+        if (n < wheelSize) {
+            n <<= 1;
+        }
+        buckets = new List[n];
+        for (int i = 0; i < n; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        mask = n - 1;
+    }
+
+    /**
+     * Schedule an element.
+     *
+     * @param element the element
+     * @param delay   number of ticks after which the element is due, at least 1
+     */
+    public void schedule(T element, int delay) {
+        Preconditions.checkArgument(delay > 0, "delay must be positive");
+        buckets[(int) ((tick + delay) & mask)].add(new Entry<>(element, (delay - 1) / buckets.length));
+        size++;
+    }
+
+    /**
+     * Advance the wheel by one tick and pass all elements that are due to the consumer.
+     * The consumer may schedule elements again.
+     *
+     * @param consumer receives the due elements
+     */
+    public void advance(Consumer<T> consumer) {
+        tick++;
+        int index = (int) (tick & mask);
+        List<Entry<T>> bucket = buckets[index];
+        if (bucket.isEmpty()) {
+            return;
+        }
+        buckets[index] = new ArrayList<>();
+        for (Entry<T> entry : bucket) {
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                buckets[index].add(entry);
+            } else {
+                size--;
+                consumer.accept(entry.element);
+            }
+        }
+    }
+
+    /**
+     * @return the number of scheduled elements
+     */
+    public int size() {
+        return size;
+    }
+
+    private static class Entry<T> {
+        private final T element;
+        private int rounds;
+
+        private Entry(T element, int rounds) {
+            this.element = element;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.bridge;
+
+import codecrafter47.bungeetablistplus.common.network.BridgeProtocol;
+import codecrafter47.bungeetablistplus.data.DataChangeSet;
+import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DataKeys;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BukkitDataTest {
+
+    @Test
+    public void testSequencedUpdates() {
+        BukkitBridge.BukkitData data = new BukkitBridge.BukkitData();
+
+        // the first update must be a full update
+        assertEquals(BukkitBridge.UpdateResult.GAP, data.update(1, 0, DataChangeSet.of(DataKeys.World, "world")));
+        assertNull(data.getRawValue(DataKeys.World));
+
+        assertEquals(BukkitBridge.UpdateResult.APPLIED, data.update(5, BridgeProtocol.FLAG_FULL_UPDATE, DataChangeSet.of(DataKeys.World, "world")));
+        assertEquals(BukkitBridge.UpdateResult.APPLIED, data.update(6, 0, DataChangeSet.of(DataKeys.World, "nether")));
+        assertEquals("nether", data.getRawValue(DataKeys.World));
+
+        assertEquals(BukkitBridge.UpdateResult.DUPLICATE, data.update(6, 0, DataChangeSet.of(DataKeys.World, "world")));
+        assertEquals("nether", data.getRawValue(DataKeys.World));
+    }
+
+    @Test
+    public void testGapRequestsResetOnce() {
+        BukkitBridge.BukkitData data = new BukkitBridge.BukkitData();
+        data.update(1, BridgeProtocol.FLAG_FULL_UPDATE, DataChangeSet.of(DataKeys.World, "world"));
+
+        assertEquals(BukkitBridge.UpdateResult.GAP, data.update(3, 0, DataChangeSet.of(DataKeys.World, "nether")));
+        assertEquals(BukkitBridge.UpdateResult.DUPLICATE, data.update(4, 0, DataChangeSet.of(DataKeys.World, "nether")));
+        assertEquals("world", data.getRawValue(DataKeys.World));
+
+        // the full update replaces all data
+        assertEquals(BukkitBridge.UpdateResult.APPLIED, data.update(5, BridgeProtocol.FLAG_FULL_UPDATE, DataChangeSet.of(DataKeys.DisplayName, "Steve")));
+        assertNull(data.getRawValue(DataKeys.World));
+        assertEquals("Steve", data.getRawValue(DataKeys.DisplayName));
+        assertEquals(BukkitBridge.UpdateResult.APPLIED, data.update(6, 0, DataChangeSet.empty()));
+    }
+
+    @Test
+    public void testLeases() {
+        BukkitBridge.BukkitData data = new BukkitBridge.BukkitData();
+        data.update(1, BridgeProtocol.FLAG_FULL_UPDATE, DataChangeSet.empty());
+
+        assertTrue(data.renewLease(DataKeys.World, true));
+        assertFalse(data.renewLease(DataKeys.World, true));
+        assertTrue(data.renewLease(DataKeys.Health, false));
+        data.registerValueChangeListener(DataKeys.Level, level -> {
+        });
+
+        // expired leases are only marked by the first check
+        long later = System.currentTimeMillis() + BukkitBridge.BukkitData.LEASE_DURATION;
+        List<DataKey<?>> released = new ArrayList<>();
+        assertTrue(data.releaseExpiredLeases(later, released::add));
+        assertTrue(released.isEmpty());
+
+        // reading a key renews its lease
+        data.renewLease(DataKeys.Health, false);
+        assertFalse(data.releaseExpiredLeases(later, released::add));
+        assertEquals(Collections.singletonList(DataKeys.World), released);
+
+        // released keys are requested again
+        assertTrue(data.renewLease(DataKeys.World, true));
+    }
+}
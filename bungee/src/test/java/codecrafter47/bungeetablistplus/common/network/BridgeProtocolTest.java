@@ -0,0 +1,305 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.common.network;
+
+import codecrafter47.bungeetablistplus.common.BTLPDataKeys;
+import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DataKeys;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BridgeProtocolTest {
+
+    private final Random random = new Random(0x42);
+
+    @Test
+    public void testVarIntRoundTrip() throws IOException {
+        BridgeOutput out = new BridgeOutput();
+        int[] ints = new int[1000];
+        long[] longs = new long[1000];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = i < 4 ? new int[]{0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE}[i] : random.nextInt() >> random.nextInt(32);
+            longs[i] = i < 4 ? new long[]{0, -1, Long.MIN_VALUE, Long.MAX_VALUE}[i] : random.nextLong() >> random.nextInt(64);
+            out.writeVarInt(ints[i]);
+            out.writeVarLong(longs[i]);
+        }
+        BridgeInput in = new BridgeInput(out.toByteArray());
+        for (int i = 0; i < ints.length; i++) {
+            assertEquals(ints[i], in.readVarInt());
+            assertEquals(longs[i], in.readVarLong());
+        }
+        assertTrue(!in.hasRemaining());
+    }
+
+    @Test
+    public void testValueRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        Collections.addAll(values, null, true, false, 0, -1, Integer.MIN_VALUE, Long.MAX_VALUE, 1.5f, Double.NaN,
+                Double.NEGATIVE_INFINITY, -0.0, "", "§aHello 😀", Arrays.asList("a", "b"),
+                Collections.emptyList(), Arrays.asList("a", 1), UUID.randomUUID());
+        for (int i = 0; i < 500; i++) {
+            values.add(randomValue());
+        }
+
+        BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_PLAYER_DATA);
+        for (Object value : values) {
+            out.writeValue(value);
+        }
+        byte[] data = out.toByteArray();
+        assertTrue(BridgeProtocol.isBinary(data));
+
+        BridgeInput in = new BridgeInput(data);
+        assertEquals(BridgeProtocol.UPDATE_PLAYER_DATA, in.readMessageHeader());
+        for (Object value : values) {
+            assertEquals(value, in.readValue());
+        }
+        assertTrue(!in.hasRemaining());
+    }
+
+    @Test
+    public void testDataKeyRoundTrip() throws IOException {
+        DataKey<?>[] keys = {DataKeys.Health, DataKeys.Vault_Balance, DataKeys.BungeeCord_PrimaryGroup, DataKeys.permission("a.b"),
+                BTLPDataKeys.createPlaceholderAPIDataKey("%player_name%"), BTLPDataKeys.createThirdPartyVariableDataKey("foo"),
+                DataKey.builder().id("test:custom").server().bukkit().build()};
+        BridgeOutput out = new BridgeOutput();
+        for (DataKey<?> key : keys) {
+            out.writeDataKey(key);
+        }
+        BridgeInput in = new BridgeInput(out.toByteArray());
+        for (DataKey<?> key : keys) {
+            DataKey<?> read = in.readDataKey();
+            assertEquals(key, read);
+            assertEquals(key.getClass(), read.getClass());
+        }
+        assertTrue(!in.hasRemaining());
+
+        in = new BridgeInput(out.toByteArray());
+        assertSame(DataKeys.Health, in.readDataKey());
+        assertSame(DataKeys.Vault_Balance, in.readDataKey());
+    }
+
+    @Test
+    public void testKeyIds() throws IOException {
+        DataKeyTable sender = new DataKeyTable();
+        DataKeyTable receiver = new DataKeyTable();
+
+        BridgeOutput keyIds = sender.assignIds(Arrays.asList(DataKeys.Health, DataKeys.Vault_Balance));
+        BridgeInput in = new BridgeInput(keyIds.toByteArray());
+        assertEquals(BridgeProtocol.KEY_IDS, in.readMessageHeader());
+        receiver.readKeyIds(in);
+
+        // late keys only get the new ids
+        keyIds = sender.assignIds(Arrays.asList(DataKeys.Health, BTLPDataKeys.createPlaceholderAPIDataKey("%vault_eco_balance%")));
+        in = new BridgeInput(keyIds.toByteArray());
+        in.readMessageHeader();
+        receiver.readKeyIds(in);
+        assertEquals(3, receiver.size());
+        assertNull(sender.assignIds(Collections.singletonList(DataKeys.Vault_Balance)));
+
+        BridgeOutput out = new BridgeOutput();
+        sender.writeKey(out, BTLPDataKeys.createPlaceholderAPIDataKey("%vault_eco_balance%"));
+        sender.writeKey(out, DataKeys.Health);
+        assertEquals(2, out.size());
+        in = new BridgeInput(out.toByteArray());
+        assertEquals(BTLPDataKeys.createPlaceholderAPIDataKey("%vault_eco_balance%"), receiver.readKey(in));
+        assertSame(DataKeys.Health, receiver.readKey(in));
+    }
+
+    @Test
+    public void testKeyIdsOutOfSync() throws IOException {
+        DataKeyTable sender = new DataKeyTable();
+        sender.assignIds(Collections.singletonList(DataKeys.Health));
+        BridgeInput in = new BridgeInput(sender.assignIds(Collections.singletonList(DataKeys.MaxHealth)).toByteArray());
+        in.readMessageHeader();
+        try {
+            new DataKeyTable().readKeyIds(in);
+            fail("Accepted key ids with a gap");
+        } catch (IOException ignored) {
+        }
+
+        BridgeOutput out = new BridgeOutput();
+        out.writeVarInt(0);
+        try {
+            new DataKeyTable().readKey(new BridgeInput(out.toByteArray()));
+            fail("Accepted unknown key id");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testMalformedInput() {
+        BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_SERVER_DATA);
+        out.writeVarInt(64);
+        for (int i = 0; i < 64; i++) {
+            out.writeDataKey(DataKeys.permission("perm" + i));
+            try {
+                out.writeValue(randomValue());
+            } catch (IOException ex) {
+                throw new AssertionError(ex);
+            }
+        }
+        byte[] valid = out.toByteArray();
+
+        // truncated messages
+        for (int length = 0; length < valid.length; length++) {
+            assertRejected(Arrays.copyOf(valid, length));
+        }
+
+        // random corruption must never fail with anything but an IOException
+        for (int i = 0; i < 2000; i++) {
+            byte[] data = valid.clone();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                data[random.nextInt(data.length)] = (byte) random.nextInt();
+            }
+            decode(data);
+        }
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_SERVER_DATA);
+        out.writeVarInt(64);
+        for (int i = 0; i < 64; i++) {
+            out.writeDataKey(BTLPDataKeys.createPlaceholderAPIDataKey("%player_stat_" + i + "%"));
+            out.writeValue("§7[§aMember§7] §f" + i);
+        }
+        byte[] uncompressed = out.toByteArray();
+        byte[] compressed = out.toMessage(true);
+        assertTrue(compressed.length < uncompressed.length);
+        assertTrue(BridgeProtocol.isBinary(compressed));
+        assertArrayEquals(uncompressed, out.toMessage(false));
+
+        BridgeInput in = new BridgeInput(compressed);
+        assertEquals(BridgeProtocol.UPDATE_SERVER_DATA, in.readMessageHeader());
+        assertEquals(64, in.readVarInt());
+        for (int i = 0; i < 64; i++) {
+            assertEquals(BTLPDataKeys.createPlaceholderAPIDataKey("%player_stat_" + i + "%"), in.readDataKey());
+            assertEquals("§7[§aMember§7] §f" + i, in.readValue());
+        }
+        assertTrue(!in.hasRemaining());
+
+        // small messages are left alone
+        BridgeOutput small = BridgeProtocol.createMessage(BridgeProtocol.PLACEHOLDER);
+        small.writeString("%player_name%");
+        assertArrayEquals(small.toByteArray(), small.toMessage(true));
+    }
+
+    @Test
+    public void testMalformedCompressedInput() throws IOException {
+        BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.UPDATE_SERVER_DATA);
+        out.writeVarInt(64);
+        for (int i = 0; i < 64; i++) {
+            out.writeDataKey(DataKeys.permission("perm" + i));
+            out.writeValue(i % 2 == 0 ? "value" : i);
+        }
+        byte[] valid = out.toMessage(true);
+        assertTrue(valid.length < out.size());
+
+        for (int length = 0; length < valid.length; length++) {
+            assertRejected(Arrays.copyOf(valid, length));
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            byte[] data = valid.clone();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                data[random.nextInt(data.length)] = (byte) random.nextInt();
+            }
+            decode(data);
+        }
+    }
+
+    private void assertRejected(byte[] data) {
+        try {
+            decodeMessage(data);
+        } catch (IOException ex) {
+            return;
+        }
+        fail("Truncated message of length " + data.length + " was accepted");
+    }
+
+    private static void decode(byte[] data) {
+        try {
+            decodeMessage(data);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void decodeMessage(byte[] data) throws IOException {
+        BridgeInput in = new BridgeInput(data);
+        in.readMessageHeader();
+        int size = in.readVarInt();
+        for (int i = 0; i < size; i++) {
+            in.readDataKey();
+            in.readValue();
+        }
+    }
+
+    private Object randomValue() {
+        switch (random.nextInt(8)) {
+            case 0:
+                return random.nextBoolean();
+            case 1:
+                return random.nextInt() >> random.nextInt(32);
+            case 2:
+                return random.nextLong();
+            case 3:
+                return random.nextFloat();
+            case 4:
+                return Double.longBitsToDouble(random.nextLong());
+            case 5:
+                return randomString();
+            case 6:
+                List<String> list = new ArrayList<>();
+                for (int i = random.nextInt(5); i > 0; i--) {
+                    list.add(randomString());
+                }
+                return list;
+            default:
+                return null;
+        }
+    }
+
+    private String randomString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(20); i > 0; i--) {
+            int codePoint;
+            do {
+                codePoint = random.nextInt(random.nextBoolean() ? 0x80 : Character.MAX_CODE_POINT + 1);
+            } while (Character.getType(codePoint) == Character.SURROGATE);
+            sb.appendCodePoint(codePoint);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataCacheTest {
+
+    @Test
+    public void testInlineNotification() {
+        DataCache cache = new DataCache();
+        List<String> values = new ArrayList<>();
+        cache.registerValueChangeListener(DataKeys.World, values::add);
+        cache.updateValue(DataKeys.World, "world");
+        assertEquals(Collections.singletonList("world"), values);
+    }
+
+    @Test
+    public void testBatchedNotification() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        DataCache cache = new DataCache(tasks::add);
+        List<String> values = new ArrayList<>();
+        cache.registerValueChangeListener(DataKeys.World, values::add);
+
+        cache.updateValue(DataKeys.World, "world");
+        cache.apply(DataChangeSet.of(DataKeys.World, "nether"));
+        assertEquals("nether", cache.getRawValue(DataKeys.World));
+        assertEquals(Collections.emptyList(), values);
+        assertEquals(1, tasks.size());
+
+        tasks.poll().run();
+        assertEquals(Arrays.asList("world", "nether"), values);
+
+        cache.updateValue(DataKeys.World, "end");
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void testNotificationPostedWhileDraining() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        DataCache cache = new DataCache(tasks::add);
+        List<String> values = new ArrayList<>();
+        cache.registerValueChangeListener(DataKeys.World, value -> {
+            values.add(value);
+            if (value.equals("world")) {
+                cache.updateValue(DataKeys.World, "nether");
+            }
+        });
+
+        cache.updateValue(DataKeys.World, "world");
+        tasks.poll().run();
+        // the update made by the listener is delivered by the same task
+        assertEquals(Arrays.asList("world", "nether"), values);
+        assertEquals(0, tasks.size());
+    }
+
+    @Test
+    public void testChangeSetListenerNotifiedOncePerApply() {
+        DataCache cache = new DataCache();
+        List<DataChangeSet> changeSets = new ArrayList<>();
+        cache.registerChangeSetListener(changeSets::add);
+
+        cache.apply(DataChangeSet.builder()
+                .put(DataKeys.World, "world")
+                .put(DataKeys.Health, 20.0)
+                .build());
+        assertEquals(1, changeSets.size());
+        assertEquals(2, changeSets.get(0).size());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class DataKeyTest {
+
+    @Test
+    public void testNumericKeysSerializeAsDataKey() throws IOException, ClassNotFoundException {
+        for (DataKey<?> key : new DataKey<?>[]{DataKeys.Level, DataKeys.Health}) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(os);
+            out.writeObject(key);
+            out.close();
+            byte[] bytes = os.toByteArray();
+
+            // older bukkit bridges only know DataKey
+            String stream = new String(bytes, StandardCharsets.ISO_8859_1);
+            assertFalse(stream.contains("IntDataKey"));
+            assertFalse(stream.contains("DoubleDataKey"));
+
+            Object read = new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+            assertSame(DataKey.class, read.getClass());
+            assertEquals(key, read);
+            assertEquals(key.isBungee(), ((DataKey<?>) read).isBungee());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.managers;
+
+import codecrafter47.bungeetablistplus.data.DataCache;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DataDependencyTrackerTest {
+
+    @Test
+    public void testRecordedDependencies() {
+        DataDependencyTracker<String> tracker = new DataDependencyTracker<>();
+        DataCache player = new DataCache();
+        DataCache server = new DataCache();
+
+        tracker.startRecording();
+        tracker.recordAccess(player);
+        tracker.recordAccess(server);
+        tracker.recordAccess(player);
+        tracker.stopRecording("alice");
+
+        tracker.startRecording();
+        tracker.recordAccess(server);
+        tracker.stopRecording("bob");
+
+        assertEquals(Collections.singleton("alice"), tracker.getDependentViewers(player));
+        assertEquals(2, tracker.getDependentViewers(server).size());
+    }
+
+    @Test
+    public void testDependenciesReplacedByNextPass() {
+        DataDependencyTracker<String> tracker = new DataDependencyTracker<>();
+        DataCache player = new DataCache();
+        DataCache server = new DataCache();
+
+        tracker.startRecording();
+        tracker.recordAccess(player);
+        tracker.stopRecording("alice");
+
+        tracker.startRecording();
+        tracker.recordAccess(server);
+        tracker.stopRecording("alice");
+
+        assertTrue(tracker.getDependentViewers(player).isEmpty());
+        assertEquals(Collections.singleton("alice"), tracker.getDependentViewers(server));
+    }
+
+    @Test
+    public void testAccessOutsideRecordingIgnored() throws InterruptedException {
+        DataDependencyTracker<String> tracker = new DataDependencyTracker<>();
+        DataCache player = new DataCache();
+        DataCache other = new DataCache();
+
+        tracker.recordAccess(player);
+        tracker.startRecording();
+        Thread thread = new Thread(() -> tracker.recordAccess(other));
+        thread.start();
+        thread.join();
+        tracker.stopRecording("alice");
+
+        assertTrue(tracker.getDependentViewers(player).isEmpty());
+        assertTrue(tracker.getDependentViewers(other).isEmpty());
+    }
+
+    @Test
+    public void testRemoveViewer() {
+        DataDependencyTracker<String> tracker = new DataDependencyTracker<>();
+        DataCache player = new DataCache();
+
+        tracker.startRecording();
+        tracker.recordAccess(player);
+        tracker.stopRecording("alice");
+        tracker.removeViewer("alice");
+
+        assertTrue(tracker.getDependentViewers(player).isEmpty());
+    }
+}
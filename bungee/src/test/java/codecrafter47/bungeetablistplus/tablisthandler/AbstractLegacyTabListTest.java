@@ -63,6 +63,30 @@ public class AbstractLegacyTabListTest {
         }
     }
 
+    @Test
+    public void testUnchangedTeamsNotResent() {
+        tabListHandler.setSize(60);
+        tabListHandler.setPassTrough(false);
+        for (int i = 0; i < 60; i++) {
+            tabListHandler.setSlot(i, String.format("&cSlot %02d abcdefghijklmnopqrstuvwxyz", i), i);
+        }
+
+        int teamUpdates = tabListHandler.teamUpdates;
+        for (int i = 0; i < 60; i++) {
+            tabListHandler.setSlot(i, String.format("&cSlot %02d abcdefghijklmnopqrstuvwxyz", i), i);
+        }
+        assertEquals(teamUpdates, tabListHandler.teamUpdates);
+
+        // text only differs after prefix and suffix
+        for (int i = 0; i < 60; i++) {
+            tabListHandler.setSlot(i, String.format("&cSlot %02d abcdefghijklmnopqrstuvwxyz0123", i), i);
+        }
+        assertEquals(teamUpdates, tabListHandler.teamUpdates);
+
+        tabListHandler.setSlot(0, "Changed", 0);
+        assertEquals(teamUpdates + 1, tabListHandler.teamUpdates);
+    }
+
     private static class ClientTabList {
         private Map<String, Integer> ping = new HashMap<>();
         private List<String> players = new ArrayList<>();
@@ -72,6 +96,7 @@ public class AbstractLegacyTabListTest {
 
     private static class MockLegacyTabList extends AbstractLegacyTabList {
         private final ClientTabList clientTabList;
+        private int teamUpdates = 0;
 
         public MockLegacyTabList(int maxSize, ClientTabList clientTabList) {
             super(maxSize);
@@ -115,6 +140,9 @@ public class AbstractLegacyTabListTest {
                     }
                 }
             } else if (packet instanceof net.md_5.bungee.protocol.packet.Team) {
+                if (((net.md_5.bungee.protocol.packet.Team) packet).getMode() == 2) {
+                    teamUpdates++;
+                }
                 if (((net.md_5.bungee.protocol.packet.Team) packet).getMode() == 1) {
                     Team team = clientTabList.teams.remove(((net.md_5.bungee.protocol.packet.Team) packet).getName());
                     assertNotNull(team);
@@ -0,0 +1,184 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.tablisthandler.logic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UUIDIntMapTest {
+    private static final int NO_ENTRY = -1;
+    private static final int INITIAL_MASK = 15;
+
+    private final UUIDIntMap map = new UUIDIntMap(NO_ENTRY);
+
+    /**
+     * Keys with the same {@code mostSigBits ^ leastSigBits} have the same hash.
+     */
+    private static UUID collidingKey(long xor, long n) {
+        return new UUID(xor ^ n, n);
+    }
+
+    /**
+     * @return a value for {@link #collidingKey(long, long)} whose keys start at the given index of the initial table
+     */
+    private static long xorWithHome(int home) {
+        for (long xor = 0; ; xor++) {
+            if ((UUIDIntMap.hash(xor, 0) & INITIAL_MASK) == home) {
+                return xor;
+            }
+        }
+    }
+
+    private void assertContainsExactly(Map<UUID, Integer> expected) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<UUID, Integer> entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals((int) entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testCollidingRemoves() {
+        long xor = xorWithHome(3);
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int n = 0; n < 6; n++) {
+            map.put(collidingKey(xor, n), n);
+            expected.put(collidingKey(xor, n), n);
+        }
+        assertContainsExactly(expected);
+
+        // remove from the middle, the start and the end of the cluster
+        for (int n : new int[]{2, 0, 5, 3, 1, 4}) {
+            assertEquals(n, map.remove(collidingKey(xor, n)));
+            expected.remove(collidingKey(xor, n));
+            assertFalse(map.containsKey(collidingKey(xor, n)));
+            assertContainsExactly(expected);
+        }
+    }
+
+    @Test
+    public void testWrapAround() {
+        // a cluster starting at the last index continues at the start of the table
+        long last = xorWithHome(INITIAL_MASK);
+        long first = xorWithHome(0);
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int n = 0; n < 3; n++) {
+            map.put(collidingKey(last, n), n);
+            expected.put(collidingKey(last, n), n);
+        }
+        map.put(collidingKey(first, 0), 10);
+        expected.put(collidingKey(first, 0), 10);
+        assertContainsExactly(expected);
+
+        assertEquals(0, map.remove(collidingKey(last, 0)));
+        expected.remove(collidingKey(last, 0));
+        assertContainsExactly(expected);
+
+        assertEquals(10, map.remove(collidingKey(first, 0)));
+        expected.remove(collidingKey(first, 0));
+        assertContainsExactly(expected);
+
+        assertEquals(2, map.remove(collidingKey(last, 2)));
+        expected.remove(collidingKey(last, 2));
+        assertContainsExactly(expected);
+    }
+
+    @Test
+    public void testRehash() {
+        long xor = xorWithHome(7);
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int n = 0; n < 100; n++) {
+            UUID key = n % 2 == 0 ? collidingKey(xor, n) : new UUID(n * 31L, n);
+            map.put(key, n);
+            expected.put(key, n);
+        }
+        assertContainsExactly(expected);
+
+        for (int n = 0; n < 100; n += 3) {
+            UUID key = n % 2 == 0 ? collidingKey(xor, n) : new UUID(n * 31L, n);
+            assertEquals(n, map.remove(key));
+            expected.remove(key);
+        }
+        assertContainsExactly(expected);
+    }
+
+    @Test
+    public void testRemoveThenReinsert() {
+        UUID key = UUID.randomUUID();
+        assertEquals(NO_ENTRY, map.remove(key));
+        map.put(key, 1);
+        assertEquals(1, map.remove(key));
+        assertFalse(map.containsKey(key));
+        assertEquals(NO_ENTRY, map.get(key));
+        assertEquals(NO_ENTRY, map.remove(key));
+        assertEquals(0, map.size());
+
+        map.put(key, 2);
+        assertEquals(2, map.get(key));
+        map.put(key, 3);
+        assertEquals(3, map.get(key));
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(key));
+        map.put(key, 4);
+        assertEquals(4, map.get(key));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(47);
+        List<UUID> keys = new ArrayList<>();
+        for (int home : new int[]{0, 1, INITIAL_MASK}) {
+            long xor = xorWithHome(home);
+            for (int n = 0; n < 8; n++) {
+                keys.add(collidingKey(xor, n));
+            }
+        }
+        for (int n = 0; n < 16; n++) {
+            keys.add(UUID.randomUUID());
+        }
+        Map<UUID, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed != null ? removed : NO_ENTRY, map.remove(key));
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertContainsExactly(expected);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.util;
+
+import net.md_5.bungee.api.ChatColor;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ColorParserTest {
+
+    /**
+     * The translate, truncate and pad sequence used by the tab list handlers before
+     * {@link ColorParser#applyCharLimit(String, int)} existed.
+     */
+    private static String applyCharLimitReference(String text, int charLimit) {
+        text = ChatColor.translateAlternateColorCodes('&', text);
+        if (charLimit > 0) {
+            text = ColorParser.substringIgnoreColors(text, charLimit);
+            for (int j = charLimit - ChatColor.stripColor(text).length(); j > 0; j--) {
+                text += ' ';
+            }
+        }
+        return text;
+    }
+
+    private static void assertSameAsReference(String text) {
+        for (int charLimit = -1; charLimit <= text.length() + 2; charLimit++) {
+            assertEquals("text '" + text + "', charLimit " + charLimit,
+                    applyCharLimitReference(text, charLimit), ColorParser.applyCharLimit(text, charLimit));
+        }
+    }
+
+    @Test
+    public void testPlainText() {
+        assertEquals("Slot", ColorParser.applyCharLimit("Slot 01", 4));
+        assertEquals("Slot 01   ", ColorParser.applyCharLimit("Slot 01", 10));
+        assertEquals("Slot 01", ColorParser.applyCharLimit("Slot 01", 0));
+        assertEquals("Slot 01", ColorParser.applyCharLimit("Slot 01", -1));
+        assertEquals("    ", ColorParser.applyCharLimit("", 4));
+        assertSameAsReference("Slot 01");
+        assertSameAsReference("");
+    }
+
+    @Test
+    public void testAlternateColorCodes() {
+        assertEquals("§cRed§lBo", ColorParser.applyCharLimit("&cRed&lBold", 5));
+        assertEquals("§cRed  ", ColorParser.applyCharLimit("&CRed", 5));
+        assertSameAsReference("&cRed &lbold&rplain");
+        assertSameAsReference("&CUpper&LCase");
+    }
+
+    @Test
+    public void testAmpersandAtEnd() {
+        assertSameAsReference("foo&");
+        assertSameAsReference("&");
+        assertSameAsReference("&c&");
+    }
+
+    @Test
+    public void testDoubleAmpersand() {
+        assertSameAsReference("&&");
+        assertSameAsReference("&&a");
+        assertSameAsReference("a&&cb");
+        assertSameAsReference("&&&&c&&");
+    }
+
+    @Test
+    public void testInvalidCodes() {
+        assertSameAsReference("&zfoo");
+        assertSameAsReference("§zfoo");
+        assertSameAsReference("&x&y§§a");
+        assertSameAsReference("§");
+        assertSameAsReference("foo§");
+    }
+
+    @Test
+    public void testCodesStraddlingLimit() {
+        // the limit falls between the section sign and its code
+        assertSameAsReference("ab§cde");
+        assertSameAsReference("ab&cde");
+        assertSameAsReference("abc§l§od");
+        assertSameAsReference("abc&l&od");
+        assertSameAsReference("§a§b§c");
+        assertSameAsReference("a§");
+    }
+
+    @Test
+    public void testCachedEntryForOtherLimit() {
+        String text = "&aCached text";
+        assertEquals(applyCharLimitReference(text, 5), ColorParser.applyCharLimit(text, 5));
+        assertEquals(applyCharLimitReference(text, 3), ColorParser.applyCharLimit(text, 3));
+        assertEquals(applyCharLimitReference(text, 20), ColorParser.applyCharLimit(text, 20));
+        assertEquals(applyCharLimitReference(text, -1), ColorParser.applyCharLimit(text, -1));
+        assertEquals(applyCharLimitReference(text, 5), ColorParser.applyCharLimit(text, 5));
+    }
+
+    @Test
+    public void testRandomTexts() {
+        char[] alphabet = {'&', '&', '§', '§', 'a', 'C', 'l', 'r', 'z', 'x', ' '};
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            char[] text = new char[random.nextInt(12)];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            assertSameAsReference(new String(text));
+        }
+    }
+}
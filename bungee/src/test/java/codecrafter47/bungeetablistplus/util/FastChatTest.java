@@ -0,0 +1,65 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FastChatTest {
+
+    @Test
+    public void testEmpty() {
+        assertEquals("{\"text\":\"\"}", FastChat.legacyTextToJson("", '&'));
+        assertEquals("{\"text\":\"\"}", FastChat.legacyTextToJson("&c&l", '&'));
+    }
+
+    @Test
+    public void testPlainText() {
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Slot 01\"}]}", FastChat.legacyTextToJson("Slot 01", '&'));
+    }
+
+    @Test
+    public void testFormatting() {
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Red \",\"color\":\"red\"},{\"text\":\"bold\",\"color\":\"red\",\"bold\":true},{\"text\":\"plain\",\"color\":\"white\"}]}",
+                FastChat.legacyTextToJson("&cRed &lbold&rplain", '&'));
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"Up\",\"color\":\"red\"}]}", FastChat.legacyTextToJson("§CUp", '&'));
+    }
+
+    @Test
+    public void testInvalidCodes() {
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"&zfoo\"}]}", FastChat.legacyTextToJson("&zfoo", '&'));
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"foo\"}]}", FastChat.legacyTextToJson("§zfoo", '&'));
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"foo&\"}]}", FastChat.legacyTextToJson("foo&", '&'));
+    }
+
+    @Test
+    public void testEscaping() {
+        assertEquals("{\"text\":\"\",\"extra\":[{\"text\":\"\\\"q\\\\\\n\\u0001\"}]}", FastChat.legacyTextToJson("\"q\\\n\u0001", '&'));
+    }
+
+    @Test
+    public void testCache() {
+        String text = "&aCached &btext";
+        assertSame(FastChat.legacyTextToJson(text, '&'), FastChat.legacyTextToJson(text, '&'));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testDueAfterDelay() {
+        TimerWheel<String> wheel = new TimerWheel<>(8);
+        wheel.schedule("a", 1);
+        wheel.schedule("b", 3);
+        List<String> due = new ArrayList<>();
+        wheel.advance(due::add);
+        assertEquals(Collections.singletonList("a"), due);
+        due.clear();
+        wheel.advance(due::add);
+        assertEquals(Collections.emptyList(), due);
+        wheel.advance(due::add);
+        assertEquals(Collections.singletonList("b"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDelayLongerThanWheel() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(4);
+        for (int delay = 1; delay <= 20; delay++) {
+            wheel.schedule(delay, delay);
+        }
+        for (int tick = 1; tick <= 20; tick++) {
+            List<Integer> due = new ArrayList<>();
+            wheel.advance(due::add);
+            assertEquals(Collections.singletonList(tick), due);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRescheduleFromConsumer() {
+        TimerWheel<String> wheel = new TimerWheel<>(4);
+        wheel.schedule("a", 4);
+        List<Integer> ticks = new ArrayList<>();
+        for (int tick = 1; tick <= 12; tick++) {
+            int currentTick = tick;
+            wheel.advance(element -> {
+                ticks.add(currentTick);
+                wheel.schedule(element, 4);
+            });
+        }
+        assertEquals(Arrays.asList(4, 8, 12), ticks);
+        assertEquals(1, wheel.size());
+    }
+}
@@ -29,6 +29,14 @@ public class Constants {
 
     public final static String subchannelRequestServerVariable = "reqS";
 
+    /**
+     * Sent by the proxy if it hasn't read a requested data key for a while. Only sent to bukkit bridges
+     * which use the binary protocol.
+     */
+    public final static String subchannelReleasePlayerVariable = "relP";
+
+    public final static String subchannelReleaseServerVariable = "relS";
+
     public final static String subchannelRequestResetPlayerVariables = "rstP";
 
     public final static String subchannelRequestResetServerVariables = "rstS";
@@ -43,4 +51,11 @@ public class Constants {
 
     public final static String subchannelPlaceholder = "placeholder";
 
+    /**
+     * Sent by the proxy, contains the highest supported version of the binary protocol.
+     *
+     * @see codecrafter47.bungeetablistplus.common.network.BridgeProtocol
+     */
+    public final static String subchannelProtocolVersion = "proto";
+
 }
@@ -0,0 +1,239 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.common.network;
+
+import codecrafter47.bungeetablistplus.common.BTLPDataKeys;
+import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DataKeys;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static codecrafter47.bungeetablistplus.common.network.BridgeProtocol.*;
+
+/**
+ * Reads the binary bridge protocol from a byte array. Malformed input results in an {@link IOException}.
+ */
+public class BridgeInput {
+    /**
+     * Data key constants by scope and id, so decoded keys are the same instances (and have the same
+     * type, e.g. {@link codecrafter47.bungeetablistplus.data.IntDataKey}) as the constants.
+     */
+    private static final Map<String, DataKey<?>> knownKeys = new HashMap<>();
+
+    static {
+        for (Class<?> clazz : new Class<?>[]{DataKeys.class, BTLPDataKeys.class}) {
+            for (Field field : clazz.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && DataKey.class.isAssignableFrom(field.getType())) {
+                    try {
+                        DataKey<?> key = (DataKey<?>) field.get(null);
+                        knownKeys.putIfAbsent(knownKeyId(key.getScope(), key.getId()), key);
+                    } catch (IllegalAccessException ignored) {
+                    }
+                }
+            }
+        }
+    }
+
+    private static String knownKeyId(DataKey.Scope scope, String id) {
+        return scope.name() + ":" + id;
+    }
+
+    private byte[] buf;
+    private int pos;
+    private int end;
+
+    public BridgeInput(byte[] buf) {
+        this(buf, 0, buf.length);
+    }
+
+    public BridgeInput(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Read the header of a binary message. The body of compressed messages is decompressed.
+     *
+     * @return the message type
+     * @throws IOException if this is not a message of a supported protocol version
+     */
+    public int readMessageHeader() throws IOException {
+        if (readUnsignedByte() != MAGIC) {
+            throw new IOException("Not a binary message");
+        }
+        int version = readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported protocol version " + version);
+        }
+        int messageType = readUnsignedByte();
+        if ((messageType & FLAG_COMPRESSED) != 0) {
+            int length = readLength();
+            buf = MessageCompression.decompress(buf, pos, end - pos, length);
+            pos = 0;
+            end = length;
+            messageType &= ~FLAG_COMPRESSED;
+        }
+        return messageType;
+    }
+
+    private void require(int bytes) throws EOFException {
+        if (end - pos < bytes) {
+            throw new EOFException();
+        }
+    }
+
+    public boolean hasRemaining() {
+        return pos < end;
+    }
+
+    public int readUnsignedByte() throws IOException {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        int value = ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16) | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+        pos += 4;
+        return value;
+    }
+
+    public long readLong() throws IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too big");
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarLong too big");
+    }
+
+    private int readLength() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    public String readString() throws IOException {
+        int length = readLength();
+        require(length);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    public DataKey<?> readDataKey() throws IOException {
+        int kind = readUnsignedByte();
+        switch (kind) {
+            case KEY_DEFAULT:
+                String id = readString();
+                int flags = readUnsignedByte();
+                DataKey.Scope scope = (flags & 1) != 0 ? DataKey.Scope.SERVER : DataKey.Scope.PLAYER;
+                DataKey<?> key = knownKeys.get(knownKeyId(scope, id));
+                if (key != null) {
+                    return key;
+                }
+                DataKey.DataKeyBuilder builder = DataKey.builder().id(id).scope(scope);
+                return ((flags & 2) != 0 ? builder.bungee() : builder.bukkit()).build();
+            case KEY_PERMISSION:
+                return DataKeys.permission(readString());
+            case KEY_PLACEHOLDERAPI:
+                return BTLPDataKeys.createPlaceholderAPIDataKey(readString());
+            case KEY_THIRD_PARTY_VARIABLE:
+                return BTLPDataKeys.createThirdPartyVariableDataKey(readString());
+            default:
+                throw new IOException("Unknown data key kind " + kind);
+        }
+    }
+
+    public Object readValue() throws IOException {
+        int type = readUnsignedByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_INT:
+                int i = readVarInt();
+                return (i >>> 1) ^ -(i & 1);
+            case TYPE_LONG:
+                long l = readVarLong();
+                return (l >>> 1) ^ -(l & 1);
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat(readInt());
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case TYPE_STRING:
+                return readString();
+            case TYPE_STRING_LIST:
+                int size = readLength();
+                List<String> list = new ArrayList<>(Math.min(size, 16));
+                for (int j = 0; j < size; j++) {
+                    list.add(readString());
+                }
+                return list;
+            case TYPE_SERIALIZED:
+                int length = readLength();
+                require(length);
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buf, pos, length))) {
+                    pos += length;
+                    return in.readObject();
+                } catch (ClassNotFoundException | RuntimeException ex) {
+                    throw new IOException(ex);
+                }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.common.network;
+
+import codecrafter47.bungeetablistplus.common.BTLPDataKeys;
+import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.PermissionDataKey;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static codecrafter47.bungeetablistplus.common.network.BridgeProtocol.*;
+
+/**
+ * Writes the binary bridge protocol directly into a byte array.
+ */
+public class BridgeOutput {
+    private byte[] buf;
+    private int pos = 0;
+
+    public BridgeOutput() {
+        this(64);
+    }
+
+    public BridgeOutput(int initialCapacity) {
+        buf = new byte[initialCapacity];
+    }
+
+    private void ensureCapacity(int additional) {
+        if (pos + additional > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + additional));
+        }
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buf[pos++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buf, pos, length);
+        pos += length;
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        buf[pos++] = (byte) (value >>> 24);
+        buf[pos++] = (byte) (value >>> 16);
+        buf[pos++] = (byte) (value >>> 8);
+        buf[pos++] = (byte) value;
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeDataKey(DataKey<?> key) {
+        if (key instanceof PermissionDataKey) {
+            writeByte(KEY_PERMISSION);
+            writeString(((PermissionDataKey) key).getPermission());
+        } else if (key instanceof BTLPDataKeys.PlaceholderAPIDataKey) {
+            writeByte(KEY_PLACEHOLDERAPI);
+            writeString(((BTLPDataKeys.PlaceholderAPIDataKey) key).getPlaceholder());
+        } else if (key instanceof BTLPDataKeys.ThirdPartyVariableDataKey) {
+            writeByte(KEY_THIRD_PARTY_VARIABLE);
+            writeString(((BTLPDataKeys.ThirdPartyVariableDataKey) key).getName());
+        } else {
+            writeByte(KEY_DEFAULT);
+            writeString(key.getId());
+            writeByte((key.getScope() == DataKey.Scope.SERVER ? 1 : 0) | (key.isBungee() ? 2 : 0));
+        }
+    }
+
+    /**
+     * Write a type-tagged value. Types without a compact representation are written using java serialization.
+     *
+     * @param value the value, may be null
+     * @throws IOException if the value can't be serialized
+     */
+    public void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writeByte(TYPE_NULL);
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Integer) {
+            writeByte(TYPE_INT);
+            int i = (Integer) value;
+            writeVarInt((i << 1) ^ (i >> 31));
+        } else if (value instanceof Long) {
+            writeByte(TYPE_LONG);
+            long l = (Long) value;
+            writeVarLong((l << 1) ^ (l >> 63));
+        } else if (value instanceof Float) {
+            writeByte(TYPE_FLOAT);
+            writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Double) {
+            writeByte(TYPE_DOUBLE);
+            writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String) {
+            writeByte(TYPE_STRING);
+            writeString((String) value);
+        } else if (value instanceof List && isStringList((List<?>) value)) {
+            List<?> list = (List<?>) value;
+            writeByte(TYPE_STRING_LIST);
+            writeVarInt(list.size());
+            for (Object element : list) {
+                writeString((String) element);
+            }
+        } else {
+            writeByte(TYPE_SERIALIZED);
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(os)) {
+                out.writeObject(value);
+            }
+            byte[] bytes = os.toByteArray();
+            writeVarInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    private static boolean isStringList(List<?> list) {
+        for (Object element : list) {
+            if (!(element instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return pos;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    /**
+     * Get the bytes of a message started with {@link BridgeProtocol#createMessage(int)}.
+     *
+     * @param compression whether the receiver accepts compressed messages
+     * @return the message, compressed if allowed and larger than {@link BridgeProtocol#COMPRESSION_THRESHOLD}
+     */
+    public byte[] toMessage(boolean compression) {
+        if (compression && pos > COMPRESSION_THRESHOLD) {
+            byte[] compressed = MessageCompression.compress(buf, pos);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        return toByteArray();
+    }
+}
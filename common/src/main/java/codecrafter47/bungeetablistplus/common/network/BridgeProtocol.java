@@ -0,0 +1,129 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.common.network;
+
+/**
+ * Constants of the binary protocol used between the proxy and the bukkit bridge.
+ * <p>
+ * Every binary message starts with {@link #MAGIC}, followed by the protocol {@link #VERSION} and
+ * the message type. Messages written by {@link java.io.ObjectOutputStream} (the legacy format) start
+ * with {@code 0xAC}, so both formats can be told apart by the first byte.
+ * <p>
+ * The bukkit bridge only sends binary messages to a player's proxy after the proxy announced that it
+ * understands them by sending {@link codecrafter47.bungeetablistplus.common.Constants#subchannelProtocolVersion}
+ * in the legacy format. Older proxies never send it, so they keep receiving the legacy format. The proxy
+ * accepts both formats.
+ * <p>
+ * The announcement also acts as handshake for the data key ids: data messages don't contain data keys but
+ * dense ids from a {@link DataKeyTable}. Both sides start with an empty table for each connection, the bukkit
+ * bridge assigns ids when it first sends a key and announces them with a {@link #KEY_IDS} message.
+ * <p>
+ * The announcement contains a random id of the proxy. The bukkit bridge bundles the player data of all players
+ * connected through the same proxy into {@link #UPDATE_PLAYER_DATA} messages, each entry consisting of the
+ * player's uuid, a sequence number, flags and the changed data. The messages are sent through the connection of
+ * any of these players.
+ * <p>
+ * Updates are numbered per player (and per server for server data). The proxy applies an update only if it
+ * directly follows the last one it applied or if it is a full update ({@link #FLAG_FULL_UPDATE}), and
+ * acknowledges the applied updates with {@link #ACK_PLAYER_DATA} and {@link #ACK_SERVER_DATA} messages. On a
+ * gap it requests a reset, which is answered by a full update. The bukkit bridge also sends a full update if
+ * too many updates are left unacknowledged. Acknowledgements are the only binary messages sent by the proxy.
+ * <p>
+ * The announcement also tells whether the proxy accepts compressed messages. If it does the bukkit bridge
+ * compresses messages larger than {@link #COMPRESSION_THRESHOLD} with DEFLATE. The message type of compressed
+ * messages has {@link #FLAG_COMPRESSED} set, and the body is replaced by its uncompressed length followed by
+ * the compressed body.
+ */
+public final class BridgeProtocol {
+
+    public static final byte MAGIC = 0x42;
+
+    public static final int VERSION = 5;
+
+    // message types
+    public static final int UPDATE_PLAYER_DATA = 1;
+    public static final int UPDATE_SERVER_DATA = 2;
+    public static final int PLACEHOLDER = 5;
+    public static final int KEY_IDS = 6;
+    public static final int ACK_PLAYER_DATA = 7;
+    public static final int ACK_SERVER_DATA = 8;
+
+    // message type flags
+    public static final int FLAG_COMPRESSED = 0x80;
+
+    /**
+     * Messages with at most this many bytes aren't compressed, compressing them saves too little.
+     */
+    public static final int COMPRESSION_THRESHOLD = 256;
+
+    // update flags
+    public static final int FLAG_FULL_UPDATE = 1;
+
+    // value types
+    static final int TYPE_NULL = 0;
+    static final int TYPE_FALSE = 1;
+    static final int TYPE_TRUE = 2;
+    static final int TYPE_INT = 3;
+    static final int TYPE_LONG = 4;
+    static final int TYPE_FLOAT = 5;
+    static final int TYPE_DOUBLE = 6;
+    static final int TYPE_STRING = 7;
+    static final int TYPE_STRING_LIST = 8;
+    static final int TYPE_SERIALIZED = 127;
+
+    // data key kinds
+    static final int KEY_DEFAULT = 0;
+    static final int KEY_PERMISSION = 1;
+    static final int KEY_PLACEHOLDERAPI = 2;
+    static final int KEY_THIRD_PARTY_VARIABLE = 3;
+
+    /**
+     * Upper bound for lengths read from the network, protects against corrupt messages.
+     */
+    static final int MAX_LENGTH = 1 << 20;
+
+    private BridgeProtocol() {
+    }
+
+    /**
+     * Check whether a plugin message uses the binary protocol.
+     *
+     * @param data the message
+     * @return true if it is a binary message, false if it uses the legacy format
+     */
+    public static boolean isBinary(byte[] data) {
+        return data.length >= 3 && data[0] == MAGIC;
+    }
+
+    /**
+     * Start a new binary message.
+     *
+     * @param messageType the message type
+     * @return the output to write the message body to
+     */
+    public static BridgeOutput createMessage(int messageType) {
+        BridgeOutput out = new BridgeOutput();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(messageType);
+        return out;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.common.network;
+
+import codecrafter47.bungeetablistplus.data.DataKey;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense numeric ids for the data keys exchanged over a single bridge connection.
+ * <p>
+ * The sending side assigns ids in increasing order using {@link #assignIds(Collection)} and sends the
+ * resulting {@link BridgeProtocol#KEY_IDS} message before any message using them. The receiving side
+ * mirrors the assignments using {@link #readKeyIds(BridgeInput)}. Keys showing up late, e.g. third party
+ * variables or PlaceholderAPI placeholders, simply get the next free id.
+ * <p>
+ * This class is not thread safe. On the sending side the assignment and sending the messages using the
+ * ids must happen atomically, otherwise messages may overtake the assignment.
+ */
+public class DataKeyTable {
+    private final Map<DataKey<?>, Integer> ids = new HashMap<>();
+    private final List<DataKey<?>> keys = new ArrayList<>();
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Assign ids to the given keys if they don't have one yet.
+     *
+     * @param keys the keys about to be sent
+     * @return a {@link BridgeProtocol#KEY_IDS} message announcing the new ids, or null if all keys already had an id
+     */
+    public BridgeOutput assignIds(Collection<? extends DataKey<?>> keys) {
+        int firstId = this.keys.size();
+        for (DataKey<?> key : keys) {
+            if (!ids.containsKey(key)) {
+                ids.put(key, this.keys.size());
+                this.keys.add(key);
+            }
+        }
+        int count = this.keys.size() - firstId;
+        if (count == 0) {
+            return null;
+        }
+        BridgeOutput out = BridgeProtocol.createMessage(BridgeProtocol.KEY_IDS);
+        out.writeVarInt(firstId);
+        out.writeVarInt(count);
+        for (int id = firstId; id < this.keys.size(); id++) {
+            out.writeDataKey(this.keys.get(id));
+        }
+        return out;
+    }
+
+    /**
+     * Write the id of a key.
+     *
+     * @param out the output
+     * @param key the key, must have been assigned an id using {@link #assignIds(Collection)}
+     */
+    public void writeKey(BridgeOutput out, DataKey<?> key) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            throw new IllegalStateException("No id assigned to " + key);
+        }
+        out.writeVarInt(id);
+    }
+
+    /**
+     * Read the body of a {@link BridgeProtocol#KEY_IDS} message.
+     *
+     * @param in the input, positioned after the message header
+     * @throws IOException if the message is malformed or doesn't continue the existing assignments
+     */
+    public void readKeyIds(BridgeInput in) throws IOException {
+        int firstId = in.readVarInt();
+        if (firstId != keys.size()) {
+            throw new IOException("Data key ids out of sync, expected id " + keys.size() + " but got " + firstId);
+        }
+        int count = in.readVarInt();
+        if (count < 0 || count > BridgeProtocol.MAX_LENGTH) {
+            throw new IOException("Invalid length " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            DataKey<?> key = in.readDataKey();
+            ids.put(key, keys.size());
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Read a key id.
+     *
+     * @param in the input
+     * @return the key
+     * @throws IOException if the id hasn't been assigned
+     */
+    public DataKey<?> readKey(BridgeInput in) throws IOException {
+        int id = in.readVarInt();
+        if (id < 0 || id >= keys.size()) {
+            throw new IOException("Unknown data key id " + id);
+        }
+        return keys.get(id);
+    }
+}
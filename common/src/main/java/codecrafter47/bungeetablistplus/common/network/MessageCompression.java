@@ -0,0 +1,120 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.common.network;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static codecrafter47.bungeetablistplus.common.network.BridgeProtocol.*;
+
+/**
+ * DEFLATE compression of binary messages.
+ * <p>
+ * Deflaters and inflaters hold native memory and are expensive to create, so they are pooled per thread
+ * together with the buffer the compressed data is written to.
+ */
+final class MessageCompression {
+
+    private static final int HEADER_SIZE = 3;
+
+    private static final ThreadLocal<Deflater> deflater = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> buffer = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private MessageCompression() {
+    }
+
+    /**
+     * Compress the body of a message. The message type of the result has {@link BridgeProtocol#FLAG_COMPRESSED}
+     * set and the body is preceded by its uncompressed length.
+     *
+     * @param message the message, starting with the header
+     * @param length  the length of the message
+     * @return the compressed message, or null if compression doesn't make it smaller
+     */
+    static byte[] compress(byte[] message, int length) {
+        BridgeOutput out = new BridgeOutput(0);
+        out.writeByte(message[0]);
+        out.writeByte(message[1]);
+        out.writeByte(message[2] | FLAG_COMPRESSED);
+        out.writeVarInt(length - HEADER_SIZE);
+
+        Deflater deflater = MessageCompression.deflater.get();
+        byte[] buffer = MessageCompression.buffer.get();
+        try {
+            deflater.setInput(message, HEADER_SIZE, length - HEADER_SIZE);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.writeBytes(buffer, 0, count);
+                if (out.size() >= length) {
+                    return null;
+                }
+            }
+        } finally {
+            deflater.reset();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompress the body of a message.
+     *
+     * @param data             the compressed body
+     * @param offset           start of the compressed body
+     * @param length           length of the compressed body
+     * @param uncompressedSize length of the uncompressed body
+     * @return the uncompressed body
+     * @throws IOException if the data is corrupt or doesn't have the expected size
+     */
+    static byte[] decompress(byte[] data, int offset, int length, int uncompressedSize) throws IOException {
+        byte[] result = new byte[uncompressedSize];
+        Inflater inflater = MessageCompression.inflater.get();
+        try {
+            inflater.setInput(data, offset, length);
+            int count = 0;
+            while (!inflater.finished()) {
+                int n;
+                if (count < uncompressedSize) {
+                    n = inflater.inflate(result, count, uncompressedSize - count);
+                } else if (inflater.inflate(buffer.get(), 0, 1) != 0) {
+                    throw new IOException("Compressed message is larger than announced");
+                } else {
+                    n = 0;
+                }
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed message is truncated");
+                }
+                count += n;
+            }
+            if (count != uncompressedSize) {
+                throw new IOException("Compressed message is smaller than announced");
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt compressed message", ex);
+        } finally {
+            inflater.reset();
+        }
+        return result;
+    }
+}
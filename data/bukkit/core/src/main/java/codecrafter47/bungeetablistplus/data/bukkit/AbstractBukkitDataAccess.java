@@ -21,36 +21,78 @@ package codecrafter47.bungeetablistplus.data.bukkit;
 
 import codecrafter47.bungeetablistplus.data.AbstractDataAccess;
 import codecrafter47.bungeetablistplus.data.DataKey;
+import com.google.common.collect.Sets;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ConcurrentModificationException;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
 public abstract class AbstractBukkitDataAccess<B> extends AbstractDataAccess<B> {
+    /**
+     * Keys whose providers failed because they were called asynchronously. Shared by all instances, so the
+     * knowledge survives when the data accesses are recreated, e.g. after a plugin has been enabled.
+     */
+    private static final Set<DataKey<?>> learnedMainThreadKeys = Sets.newConcurrentHashSet();
+
     protected final Logger logger;
-    private final Plugin plugin;
 
-    public AbstractBukkitDataAccess(Logger logger, Plugin plugin) {
+    /**
+     * Keys and key classes whose providers must be called on the main thread, filled by
+     * {@link #bindSync(DataKey, Function)}.
+     */
+    private final Set<DataKey<?>> mainThreadKeys = Sets.newConcurrentHashSet();
+    private final Set<Class<?>> mainThreadKeyClasses = Sets.newConcurrentHashSet();
+
+    public AbstractBukkitDataAccess(Logger logger) {
         this.logger = logger;
-        this.plugin = plugin;
+    }
+
+    /**
+     * @deprecated the plugin isn't needed anymore, use {@link #AbstractBukkitDataAccess(Logger)}
+     */
+    @Deprecated
+    public AbstractBukkitDataAccess(Logger logger, Plugin plugin) {
+        this(logger);
+    }
+
+    /**
+     * Bind a provider which must be called on the main thread.
+     */
+    protected <V> void bindSync(DataKey<V> dataKey, Function<B, V> provider) {
+        bind(dataKey, provider);
+        mainThreadKeys.add(dataKey);
+    }
+
+    /**
+     * Bind a provider which must be called on the main thread.
+     */
+    protected <V, K extends DataKey<V>> void bindSync(Class<K> clazz, BiFunction<B, K, V> provider) {
+        bind(clazz, provider);
+        mainThreadKeyClasses.add(clazz);
+    }
+
+    @Override
+    public boolean isThreadSafe(DataKey<?> key) {
+        return !mainThreadKeys.contains(key) && !mainThreadKeyClasses.contains(key.getClass()) && !learnedMainThreadKeys.contains(key);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <V> V getRawValue(DataKey<V> key, B context) {
         try {
             return super.getRawValue(key, context);
         } catch (Throwable th) {
             if (!Bukkit.isPrimaryThread() && isAsyncOpError(th)) {
-                try {
-                    return Bukkit.getScheduler().callSyncMethod(plugin, () -> getRawValue(key, context)).get();
-                } catch (InterruptedException | ExecutionException e) {
-                    logger.log(Level.SEVERE, "Unexpected exception", e);
+                // retrieve the value on the main thread from now on
+                if (learnedMainThreadKeys.add(key)) {
+                    logger.info("Data key " + key + " can only be retrieved on the main thread. Switching to main thread retrieval.");
                 }
+                return null;
             }
             logger.log(Level.SEVERE, "Unexpected exception", th);
         }
@@ -60,7 +60,7 @@ public class PlayerDataAccess extends AbstractBukkitDataAccess<Player> {
     private final Plugin plugin;
 
     public PlayerDataAccess(Plugin plugin) {
-        super(plugin.getLogger(), plugin);
+        super(plugin.getLogger());
         this.plugin = plugin;
         init();
     }
@@ -74,7 +74,7 @@ public class PlayerDataAccess extends AbstractBukkitDataAccess<Player> {
         bind(DataKeys.PosX, player -> player.getLocation().getX());
         bind(DataKeys.PosY, player -> player.getLocation().getY());
         bind(DataKeys.PosZ, player -> player.getLocation().getZ());
-        bind(DataKeys.Team, player -> {
+        bindSync(DataKeys.Team, player -> {
             Team team = player.getScoreboard().getPlayerTeam(player);
             return team != null ? team.getName() : null;
         });
@@ -0,0 +1,102 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data.bukkit;
+
+import codecrafter47.bungeetablistplus.data.DataKey;
+import codecrafter47.bungeetablistplus.data.DataKeys;
+import com.google.common.collect.ImmutableSet;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerExpChangeEvent;
+import org.bukkit.event.player.PlayerLevelChangeEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Reports when Bukkit events change the value of a data key of a player.
+ * <p>
+ * Most of the events are fired before the change is applied, so the value should be read on the next tick.
+ */
+public class PlayerDataInvalidationListener implements Listener {
+
+    /**
+     * The keys which are invalidated by this listener. Other keys must be polled.
+     */
+    public static final Set<DataKey<?>> INVALIDATED_KEYS = ImmutableSet.of(DataKeys.Health, DataKeys.Level,
+            DataKeys.XP, DataKeys.TotalXP, DataKeys.World, DataKeys.Multiverse_WorldAlias);
+
+    private final BiConsumer<Player, DataKey<?>> callback;
+
+    /**
+     * @param callback called on the main thread with the player and the key whose value has changed
+     */
+    public PlayerDataInvalidationListener(BiConsumer<Player, DataKey<?>> callback) {
+        this.callback = callback;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamage(EntityDamageEvent event) {
+        if (event.getEntity() instanceof Player) {
+            callback.accept((Player) event.getEntity(), DataKeys.Health);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onRegainHealth(EntityRegainHealthEvent event) {
+        if (event.getEntity() instanceof Player) {
+            callback.accept((Player) event.getEntity(), DataKeys.Health);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onExpChange(PlayerExpChangeEvent event) {
+        callback.accept(event.getPlayer(), DataKeys.XP);
+        callback.accept(event.getPlayer(), DataKeys.TotalXP);
+        callback.accept(event.getPlayer(), DataKeys.Level);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLevelChange(PlayerLevelChangeEvent event) {
+        callback.accept(event.getPlayer(), DataKeys.Level);
+        callback.accept(event.getPlayer(), DataKeys.XP);
+        callback.accept(event.getPlayer(), DataKeys.TotalXP);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        callback.accept(event.getPlayer(), DataKeys.World);
+        callback.accept(event.getPlayer(), DataKeys.Multiverse_WorldAlias);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        for (DataKey<?> key : INVALIDATED_KEYS) {
+            callback.accept(event.getPlayer(), key);
+        }
+    }
+}
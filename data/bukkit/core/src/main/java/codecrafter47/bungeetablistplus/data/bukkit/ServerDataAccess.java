@@ -31,7 +31,7 @@ public class ServerDataAccess extends AbstractBukkitDataAccess<Server> {
     private final Plugin plugin;
 
     public ServerDataAccess(Plugin plugin) {
-        super(plugin.getLogger(), plugin);
+        super(plugin.getLogger());
         this.plugin = plugin;
         init();
     }
@@ -42,6 +42,26 @@ public class ServerDataAccess extends AbstractBukkitDataAccess<Server> {
         bind(DataKeys.ServerModVersion, Server::getBukkitVersion);
         bind(DataKeys.TPS, ServerTPSProvider.getInstance(plugin));
 
+        TickTimeRecorder tickTimes = TickTimeRecorder.getInstance(plugin);
+        // not available on Bukkit, which can't measure how long a tick takes
+        if (tickTimes != null) {
+            bind(DataKeys.MSPT_Mean_5s, server -> tickTimes.getMean(5));
+            bind(DataKeys.MSPT_P50_5s, server -> tickTimes.getPercentile(5, 0.50));
+            bind(DataKeys.MSPT_P95_5s, server -> tickTimes.getPercentile(5, 0.95));
+            bind(DataKeys.MSPT_P99_5s, server -> tickTimes.getPercentile(5, 0.99));
+            bind(DataKeys.MSPT_Max_5s, server -> tickTimes.getMax(5));
+            bind(DataKeys.MSPT_Mean_1m, server -> tickTimes.getMean(60));
+            bind(DataKeys.MSPT_P50_1m, server -> tickTimes.getPercentile(60, 0.50));
+            bind(DataKeys.MSPT_P95_1m, server -> tickTimes.getPercentile(60, 0.95));
+            bind(DataKeys.MSPT_P99_1m, server -> tickTimes.getPercentile(60, 0.99));
+            bind(DataKeys.MSPT_Max_1m, server -> tickTimes.getMax(60));
+            bind(DataKeys.MSPT_Mean_5m, server -> tickTimes.getMean(300));
+            bind(DataKeys.MSPT_P50_5m, server -> tickTimes.getPercentile(300, 0.50));
+            bind(DataKeys.MSPT_P95_5m, server -> tickTimes.getPercentile(300, 0.95));
+            bind(DataKeys.MSPT_P99_5m, server -> tickTimes.getPercentile(300, 0.99));
+            bind(DataKeys.MSPT_Max_5m, server -> tickTimes.getMax(300));
+        }
+
         if (Bukkit.getPluginManager().getPlugin("Vault") != null) {
             bind(DataKeys.Vault_CurrencyNamePlural, new VaultCurrencyNamePluralProvider());
             bind(DataKeys.Vault_CurrencyNameSingular, new VaultCurrencyNameSingularProvider());
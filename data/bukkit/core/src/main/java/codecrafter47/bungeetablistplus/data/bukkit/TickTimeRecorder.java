@@ -0,0 +1,227 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data.bukkit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the duration of server ticks in a histogram with one slot per second, covering the last five minutes.
+ * <p>
+ * Values are sorted into buckets whose width grows with the value, so the relative error stays below 1/16 over
+ * the whole range, similar to an HdrHistogram. Recording a tick doesn't allocate.
+ * <p>
+ * The duration reported by Paper's tick end event is recorded. Bukkit has no way to observe the end of a tick and
+ * the time between the start of two ticks is always at least 50ms, so no recorder is available there.
+ */
+final class TickTimeRecorder implements Listener {
+    private static TickTimeRecorder instance = null;
+    private static boolean initialized = false;
+
+    /**
+     * @return the recorder, null if the server doesn't report the end of a tick
+     */
+    public static synchronized TickTimeRecorder getInstance(Plugin plugin) {
+        if (!initialized) {
+            initialized = true;
+            instance = create(plugin);
+        }
+        return instance;
+    }
+
+    private static TickTimeRecorder create(Plugin plugin) {
+        Class<? extends Event> tickEndEvent;
+        MethodHandle getTickDuration;
+        try {
+            tickEndEvent = Class.forName("com.destroystokyo.paper.event.server.ServerTickEndEvent").asSubclass(Event.class);
+            getTickDuration = MethodHandles.publicLookup().findVirtual(tickEndEvent, "getTickDuration", MethodType.methodType(double.class))
+                    .asType(MethodType.methodType(double.class, Event.class));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | ClassCastException ignored) {
+            return null;
+        }
+        TickTimeRecorder recorder = new TickTimeRecorder(System::nanoTime);
+        Bukkit.getPluginManager().registerEvent(tickEndEvent, recorder, EventPriority.MONITOR, (listener, event) -> {
+            if (tickEndEvent.isInstance(event)) {
+                try {
+                    recorder.record((long) ((double) getTickDuration.invokeExact(event) * 1000));
+                } catch (Throwable ignored) {
+                }
+            }
+        }, plugin);
+        return recorder;
+    }
+
+    private static final int SLOTS = 300;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    /**
+     * Largest value in microseconds which is sorted into its own bucket, larger values end up in the last bucket.
+     */
+    private static final long MAX_VALUE = (1L << 23) - 1;
+    private static final int BUCKETS = bucket(MAX_VALUE) + 1;
+
+    private final int[][] counts = new int[SLOTS][BUCKETS];
+    private final long[] slotSecond = new long[SLOTS];
+    private final int[] totals = new int[SLOTS];
+    private final long[] sums = new long[SLOTS];
+    private final long[] maxima = new long[SLOTS];
+    private final LongSupplier nanoTime;
+
+    /**
+     * Creates a recorder which isn't fed by the server.
+     *
+     * @param nanoTime the clock, see {@link System#nanoTime()}
+     */
+    TickTimeRecorder(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        Arrays.fill(slotSecond, Long.MIN_VALUE);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    /**
+     * @return the middle of the values sorted into the bucket
+     */
+    static double bucketValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long lowerBound = (long) ((bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS) << shift;
+        return lowerBound + ((1L << shift) - 1) / 2.0;
+    }
+
+    private long currentSecond() {
+        return Math.floorDiv(nanoTime.getAsLong(), 1000000000L);
+    }
+
+    /**
+     * Record the duration of a tick.
+     *
+     * @param micros the duration in microseconds
+     */
+    synchronized void record(long micros) {
+        if (micros < 0) {
+            return;
+        }
+        long second = currentSecond();
+        int slot = (int) Math.floorMod(second, (long) SLOTS);
+        if (slotSecond[slot] != second) {
+            slotSecond[slot] = second;
+            Arrays.fill(counts[slot], 0);
+            totals[slot] = 0;
+            sums[slot] = 0;
+            maxima[slot] = 0;
+        }
+        counts[slot][bucket(Math.min(micros, MAX_VALUE))]++;
+        totals[slot]++;
+        sums[slot] += micros;
+        maxima[slot] = Math.max(maxima[slot], micros);
+    }
+
+    private boolean inWindow(int slot, long now, int seconds) {
+        return slotSecond[slot] > now - seconds && slotSecond[slot] <= now;
+    }
+
+    /**
+     * @param seconds the length of the window
+     * @return the mean tick duration in milliseconds, or null if no tick has been recorded in the window
+     */
+    synchronized Double getMean(int seconds) {
+        long now = currentSecond();
+        long total = 0;
+        long sum = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (inWindow(slot, now, seconds)) {
+                total += totals[slot];
+                sum += sums[slot];
+            }
+        }
+        return total == 0 ? null : sum / (total * 1000.0);
+    }
+
+    /**
+     * @param seconds the length of the window
+     * @return the maximum tick duration in milliseconds, or null if no tick has been recorded in the window
+     */
+    synchronized Double getMax(int seconds) {
+        long now = currentSecond();
+        long total = 0;
+        long max = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (inWindow(slot, now, seconds)) {
+                total += totals[slot];
+                max = Math.max(max, maxima[slot]);
+            }
+        }
+        return total == 0 ? null : max / 1000.0;
+    }
+
+    /**
+     * @param seconds    the length of the window
+     * @param percentile the percentile, between 0 and 1
+     * @return the tick duration in milliseconds which the given fraction of the ticks didn't exceed, or null if no
+     * tick has been recorded in the window
+     */
+    synchronized Double getPercentile(int seconds, double percentile) {
+        long now = currentSecond();
+        long total = 0;
+        long max = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (inWindow(slot, now, seconds)) {
+                total += totals[slot];
+                max = Math.max(max, maxima[slot]);
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (inWindow(slot, now, seconds)) {
+                    count += counts[slot][bucket];
+                }
+            }
+            if (count >= rank) {
+                return Math.min(bucketValue(bucket), max) / 1000.0;
+            }
+        }
+        return max / 1000.0;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data.bukkit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TickTimeRecorderTest {
+    private static final long SECOND = 1000000000L;
+
+    private final long[] time = {0};
+    private final TickTimeRecorder recorder = new TickTimeRecorder(() -> time[0]);
+
+    private void recordDistribution() {
+        for (int i = 0; i < 100; i++) {
+            recorder.record(50000);
+        }
+        recorder.record(500000);
+    }
+
+    @Test
+    public void testPercentiles() {
+        recordDistribution();
+        assertEquals(50, recorder.getPercentile(60, 0.5), 50 / 16.0);
+        assertEquals(50, recorder.getPercentile(60, 0.99), 50 / 16.0);
+        assertEquals(500, recorder.getPercentile(60, 1), 0);
+        assertEquals(500, recorder.getMax(60), 0);
+        assertEquals(5500 / 101.0, recorder.getMean(60), 1e-9);
+    }
+
+    @Test
+    public void testWindowExpiry() {
+        recordDistribution();
+        time[0] += 2 * SECOND;
+        recorder.record(20000);
+        assertEquals(20, recorder.getMax(1), 0);
+        assertEquals(20, recorder.getPercentile(1, 0.99), 20 / 16.0);
+        assertEquals(500, recorder.getMax(5), 0);
+
+        time[0] += 10 * SECOND;
+        assertNull(recorder.getMean(10));
+        assertNull(recorder.getMax(10));
+        assertNull(recorder.getPercentile(10, 0.5));
+        assertEquals(500, recorder.getMax(300), 0);
+
+        // the slot of the first second is reused five minutes later
+        time[0] = 300 * SECOND;
+        recorder.record(10000);
+        assertEquals(10, recorder.getMean(1), 1e-9);
+        assertEquals(10, recorder.getPercentile(1, 1), 10 / 16.0);
+        assertEquals(20, recorder.getMax(300), 0);
+    }
+
+    @Test
+    public void testNegativeClock() {
+        time[0] = -3 * SECOND - 1;
+        recordDistribution();
+        assertEquals(500, recorder.getMax(1), 0);
+        time[0] += SECOND;
+        recorder.record(20000);
+        assertEquals(20, recorder.getMax(1), 0);
+        assertEquals(500, recorder.getMax(2), 0);
+    }
+
+    @Test
+    public void testBucketValue() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 23; value++) {
+            int bucket = TickTimeRecorder.bucket(value);
+            assertTrue(bucket == previous || bucket == previous + 1);
+            previous = bucket;
+            double error = Math.abs(TickTimeRecorder.bucketValue(bucket) - value);
+            if (value < 16) {
+                assertEquals(0, error, 0);
+            } else {
+                assertTrue(error <= value / 16.0);
+            }
+        }
+        assertEquals(167, previous);
+    }
+}
@@ -17,37 +17,93 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package codecrafter47.bungeetablistplus.data;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 public abstract class AbstractDataAccess<B> implements DataAccess<B> {
+    private static final Function<Object, Object> NO_RESOLVER = context -> null;
+
     protected final Map<DataKey<?>, Function<B, ?>> providersByDataKey = new HashMap<>();
     private final Map<Class, BiFunction<B, DataKey<?>, ?>> providersByDataKeyClass = new HashMap<>();
 
+    /**
+     * Resolvers indexed by {@link DataKey#getOrdinal()}. An entry is filled in the first time a key
+     * is requested, so later lookups don't touch the provider maps. {@link #NO_RESOLVER} marks keys
+     * this data access doesn't provide.
+     */
+    private volatile AtomicReferenceArray<Function<B, ?>> resolvers = new AtomicReferenceArray<>(0);
+
     protected <V> void bind(DataKey<V> dataKey, Function<B, V> provider) {
         providersByDataKey.put(dataKey, provider);
+        invalidateResolvers();
     }
 
     @SuppressWarnings("unchecked")
     protected <V, K extends DataKey<V>> void bind(Class<K> clazz, BiFunction<B, K, V> provider) {
         providersByDataKeyClass.put(clazz, (BiFunction<B, DataKey<?>, ?>) provider);
+        invalidateResolvers();
+    }
+
+    private synchronized void invalidateResolvers() {
+        resolvers = new AtomicReferenceArray<>(0);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <V> V getRawValue(DataKey<V> key, B context) {
-        if (providersByDataKeyClass.containsKey(key.getClass())) {
-            return (V) providersByDataKeyClass.get(key.getClass()).apply(context, key);
-        } else if (providersByDataKey.containsKey(key)) {
-            return (V) providersByDataKey.get(key).apply(context);
+        Function<B, ?> resolver = getResolver(key);
+        return resolver != null ? (V) resolver.apply(context) : null;
+    }
+
+    /**
+     * Get the function computing the value of the given key.
+     *
+     * @param key the data key
+     * @return the resolver or null if this data access doesn't provide the key
+     */
+    @SuppressWarnings("unchecked")
+    public Function<B, ?> getResolver(DataKey<?> key) {
+        int ordinal = key.getOrdinal();
+        AtomicReferenceArray<Function<B, ?>> resolvers = this.resolvers;
+        Function<B, ?> resolver = ordinal < resolvers.length() ? resolvers.get(ordinal) : null;
+        if (resolver == null) {
+            resolver = compileResolver(key, ordinal);
         }
-        return null;
+        return resolver != NO_RESOLVER ? resolver : null;
     }
 
+    @SuppressWarnings("unchecked")
+    private synchronized Function<B, ?> compileResolver(DataKey<?> key, int ordinal) {
+        Function<B, ?> resolver;
+        BiFunction<B, DataKey<?>, ?> classProvider = providersByDataKeyClass.get(key.getClass());
+        if (classProvider != null) {
+            resolver = context -> classProvider.apply(context, key);
+        } else {
+            resolver = providersByDataKey.get(key);
+            if (resolver == null) {
+                resolver = (Function<B, ?>) (Function) NO_RESOLVER;
+            }
+        }
+        AtomicReferenceArray<Function<B, ?>> resolvers = this.resolvers;
+        if (ordinal >= resolvers.length()) {
+            AtomicReferenceArray<Function<B, ?>> newResolvers = new AtomicReferenceArray<>(Math.max(ordinal + 1, DataKeyRegistry.size()));
+            for (int i = 0; i < resolvers.length(); i++) {
+                newResolvers.set(i, resolvers.get(i));
+            }
+            this.resolvers = resolvers = newResolvers;
+        }
+        resolvers.set(ordinal, resolver);
+        return resolver;
+    }
+
+    @Override
     public boolean provides(DataKey<?> key) {
-        return providersByDataKey.containsKey(key) || providersByDataKeyClass.containsKey(key.getClass());
+        return getResolver(key) != null;
     }
 }
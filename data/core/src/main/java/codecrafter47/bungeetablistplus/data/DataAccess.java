@@ -28,4 +28,26 @@ public interface DataAccess<B> {
     }
 
     <V> V getRawValue(DataKey<V> key, B context);
+
+    /**
+     * Whether this data access may provide a value for the given key. Used by {@link JoinedDataAccess}
+     * to skip data accesses which can't provide the key.
+     *
+     * @param key the data key
+     * @return false if {@link #getRawValue(DataKey, Object)} always returns null for the key
+     */
+    default boolean provides(DataKey<?> key) {
+        return true;
+    }
+
+    /**
+     * Whether the value of the given key may be retrieved from any thread. Values of keys which are
+     * not thread safe must be retrieved on the main thread of the server.
+     *
+     * @param key the data key
+     * @return false if {@link #getRawValue(DataKey, Object)} must be called from the main thread for the key
+     */
+    default boolean isThreadSafe(DataKey<?> key) {
+        return true;
+    }
 }
@@ -17,51 +17,305 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package codecrafter47.bungeetablistplus.data;
 
-import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.ImmutableMap;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 
 public class DataCache {
-    private final Map<DataKey<?>, Object> cache = new ConcurrentHashMap<>();
-    private final Multimap<DataKey<?>, Consumer<?>> listeners = Multimaps.synchronizedMultimap(MultimapBuilder.hashKeys().hashSetValues().build());
+    private static final Consumer<?>[] NO_LISTENERS = new Consumer<?>[0];
+    /**
+     * Numeric values are stored as {@code Double.doubleToLongBits(value) ^ PRIMITIVE_MASK}. The mask is a
+     * signalling NaN which {@link Double#doubleToLongBits(double)} never returns, so 0 means absent.
+     */
+    private static final long PRIMITIVE_MASK = 0x7ff0000000000001L;
 
+    /**
+     * Values indexed by {@link DataKey#getOrdinal()}. Reads don't lock, writes and
+     * resizing are guarded by {@code this}.
+     */
+    private volatile AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(DataKeyRegistry.size());
+    /**
+     * Numeric values indexed by {@link DataKey#getOrdinal()}, kept next to {@link #values} so
+     * {@link #getInt(IntDataKey, int)} and {@link #getDouble(DoubleDataKey, double)} don't need to unbox.
+     */
+    private volatile AtomicLongArray primitives = new AtomicLongArray(values.length());
+    /**
+     * Listener arrays indexed by {@link DataKey#getOrdinal()}. Listener arrays are never modified once published.
+     * Registering a listener replaces the array, so notifying listeners neither locks nor allocates.
+     */
+    private volatile AtomicReferenceArray<Consumer<?>[]> listeners = new AtomicReferenceArray<>(0);
     @SuppressWarnings("unchecked")
-    public <T> void updateValue(DataKey<T> dataKey, T object) {
-        if (object == null) {
-            cache.remove(dataKey);
+    private volatile Consumer<DataChangeSet>[] changeSetListeners = (Consumer<DataChangeSet>[]) NO_LISTENERS;
+
+    private final Executor notificationExecutor;
+    private final Queue<Runnable> pendingNotifications;
+    private final AtomicBoolean notificationTaskScheduled;
+
+    public DataCache() {
+        this(null);
+    }
+
+    /**
+     * Creates a new data cache.
+     *
+     * @param notificationExecutor if not null listeners are not invoked inline by {@link #updateValue(DataKey, Object)},
+     *                             {@link #apply(DataChangeSet)} and {@link #clear()} but collected and passed to this
+     *                             executor in batches
+     */
+    public DataCache(Executor notificationExecutor) {
+        this.notificationExecutor = notificationExecutor;
+        if (notificationExecutor != null) {
+            pendingNotifications = new ConcurrentLinkedQueue<>();
+            notificationTaskScheduled = new AtomicBoolean(false);
         } else {
-            cache.put(dataKey, object);
+            pendingNotifications = null;
+            notificationTaskScheduled = null;
         }
-        listeners.get(dataKey).forEach(consumer -> ((Consumer<T>) consumer).accept(object));
+    }
+
+    public <T> void updateValue(DataKey<T> dataKey, T object) {
+        int ordinal = dataKey.getOrdinal();
+        synchronized (this) {
+            store(ordinal, object);
+        }
+        notifyListeners(ordinal, object);
+        if (changeSetListeners.length != 0) {
+            notifyChangeSetListeners(DataChangeSet.of(dataKey, object));
+        }
+    }
+
+    /**
+     * Applies all changes of the change set at once. Value change listeners are notified for every key,
+     * change set listeners are notified once.
+     *
+     * @param changeSet the changes
+     */
+    public void apply(DataChangeSet changeSet) {
+        if (changeSet.isEmpty()) {
+            return;
+        }
+        int size = changeSet.size();
+        int[] ordinals = new int[size];
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = changeSet.getKey(i).getOrdinal();
+        }
+        synchronized (this) {
+            for (int i = 0; i < size; i++) {
+                store(ordinals[i], changeSet.getValue(i));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            notifyListeners(ordinals[i], changeSet.getValue(i));
+        }
+        notifyChangeSetListeners(changeSet);
+    }
+
+    private void store(int ordinal, Object object) {
+        AtomicReferenceArray<Object> values = this.values;
+        AtomicLongArray primitives = this.primitives;
+        if (ordinal >= values.length()) {
+            if (object == null) {
+                return;
+            }
+            this.values = values = grow(values, ordinal);
+            AtomicLongArray newPrimitives = new AtomicLongArray(values.length());
+            for (int i = 0; i < primitives.length(); i++) {
+                newPrimitives.set(i, primitives.get(i));
+            }
+            this.primitives = primitives = newPrimitives;
+        }
+        values.set(ordinal, object);
+        primitives.set(ordinal, object instanceof Number ? Double.doubleToLongBits(((Number) object).doubleValue()) ^ PRIMITIVE_MASK : 0);
+    }
+
+    private static <T> AtomicReferenceArray<T> grow(AtomicReferenceArray<T> array, int ordinal) {
+        AtomicReferenceArray<T> newArray = new AtomicReferenceArray<>(Math.max(ordinal + 1, DataKeyRegistry.size()));
+        for (int i = 0; i < array.length(); i++) {
+            newArray.set(i, array.get(i));
+        }
+        return newArray;
     }
 
     @SuppressWarnings("unchecked")
+    private <T> void notifyListeners(int ordinal, T object) {
+        AtomicReferenceArray<Consumer<?>[]> listeners = this.listeners;
+        Consumer<?>[] consumers = ordinal < listeners.length() ? listeners.get(ordinal) : null;
+        if (consumers == null) {
+            return;
+        }
+        if (notificationExecutor == null) {
+            for (Consumer<?> consumer : consumers) {
+                ((Consumer<T>) consumer).accept(object);
+            }
+        } else {
+            postNotification(() -> {
+                for (Consumer<?> consumer : consumers) {
+                    ((Consumer<T>) consumer).accept(object);
+                }
+            });
+        }
+    }
+
+    private void notifyChangeSetListeners(DataChangeSet changeSet) {
+        Consumer<DataChangeSet>[] consumers = changeSetListeners;
+        if (consumers.length == 0) {
+            return;
+        }
+        if (notificationExecutor == null) {
+            for (Consumer<DataChangeSet> consumer : consumers) {
+                consumer.accept(changeSet);
+            }
+        } else {
+            postNotification(() -> {
+                for (Consumer<DataChangeSet> consumer : consumers) {
+                    consumer.accept(changeSet);
+                }
+            });
+        }
+    }
+
+    private void postNotification(Runnable notification) {
+        pendingNotifications.add(notification);
+        if (notificationTaskScheduled.compareAndSet(false, true)) {
+            notificationExecutor.execute(this::runPendingNotifications);
+        }
+    }
+
+    private void runPendingNotifications() {
+        do {
+            Runnable notification;
+            while ((notification = pendingNotifications.poll()) != null) {
+                notification.run();
+            }
+            notificationTaskScheduled.set(false);
+            // notifications posted after the queue was drained but before the flag was reset didn't schedule a task
+        } while (!pendingNotifications.isEmpty() && notificationTaskScheduled.compareAndSet(false, true));
+    }
+
     public <T> Optional<T> getValue(DataKey<T> dataKey) {
-        return Optional.ofNullable((T) cache.get(dataKey));
+        return Optional.ofNullable(getRawValue(dataKey));
     }
 
     @SuppressWarnings("unchecked")
     public <T> T getRawValue(DataKey<T> dataKey) {
-        return (T) cache.get(dataKey);
+        int ordinal = dataKey.getOrdinal();
+        AtomicReferenceArray<Object> values = this.values;
+        return ordinal < values.length() ? (T) values.get(ordinal) : null;
+    }
+
+    public <T> T getOrNull(DataKey<T> dataKey) {
+        return getRawValue(dataKey);
+    }
+
+    public boolean contains(DataKey<?> dataKey) {
+        return getRawValue(dataKey) != null;
+    }
+
+    public int getInt(IntDataKey dataKey, int defaultValue) {
+        int ordinal = dataKey.getOrdinal();
+        AtomicLongArray primitives = this.primitives;
+        long bits = ordinal < primitives.length() ? primitives.get(ordinal) : 0;
+        return bits != 0 ? (int) Double.longBitsToDouble(bits ^ PRIMITIVE_MASK) : defaultValue;
+    }
+
+    public double getDouble(DoubleDataKey dataKey, double defaultValue) {
+        int ordinal = dataKey.getOrdinal();
+        AtomicLongArray primitives = this.primitives;
+        long bits = ordinal < primitives.length() ? primitives.get(ordinal) : 0;
+        return bits != 0 ? Double.longBitsToDouble(bits ^ PRIMITIVE_MASK) : defaultValue;
     }
 
     public void clear() {
-        cache.keySet().forEach(key -> listeners.get(key).forEach(consumer -> consumer.accept(null)));
-        cache.clear();
+        AtomicReferenceArray<Object> values;
+        boolean[] removed;
+        synchronized (this) {
+            values = this.values;
+            removed = new boolean[values.length()];
+            AtomicLongArray primitives = this.primitives;
+            for (int i = 0; i < values.length(); i++) {
+                removed[i] = values.getAndSet(i, null) != null;
+                primitives.set(i, 0);
+            }
+        }
+        DataChangeSet.Builder changes = changeSetListeners.length != 0 ? DataChangeSet.builder() : null;
+        for (int i = 0; i < removed.length; i++) {
+            if (removed[i]) {
+                notifyListeners(i, null);
+                if (changes != null) {
+                    changes.putUnchecked(DataKeyRegistry.getKey(i), null);
+                }
+            }
+        }
+        if (changes != null && !changes.isEmpty()) {
+            notifyChangeSetListeners(changes.build());
+        }
+    }
+
+    public synchronized <T> void registerValueChangeListener(DataKey<T> key, Consumer<T> listener) {
+        int ordinal = key.getOrdinal();
+        AtomicReferenceArray<Consumer<?>[]> listeners = this.listeners;
+        if (ordinal >= listeners.length()) {
+            this.listeners = listeners = grow(listeners, ordinal);
+        }
+        Consumer<?>[] consumers = listeners.get(ordinal);
+        if (consumers == null) {
+            consumers = NO_LISTENERS;
+        }
+        for (Consumer<?> consumer : consumers) {
+            if (consumer.equals(listener)) {
+                return;
+            }
+        }
+        Consumer<?>[] result = Arrays.copyOf(consumers, consumers.length + 1);
+        result[consumers.length] = listener;
+        listeners.set(ordinal, result);
     }
 
-    public <T> void registerValueChangeListener(DataKey<T> key, Consumer<T> listener) {
-        listeners.put(key, listener);
+    /**
+     * Register a listener which is notified once for every batch of changes, i.e. for every call to
+     * {@link #apply(DataChangeSet)}, {@link #updateValue(DataKey, Object)} and {@link #clear()}.
+     *
+     * @param listener the listener
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void registerChangeSetListener(Consumer<DataChangeSet> listener) {
+        Consumer<DataChangeSet>[] consumers = changeSetListeners;
+        for (Consumer<DataChangeSet> consumer : consumers) {
+            if (consumer.equals(listener)) {
+                return;
+            }
+        }
+        Consumer<DataChangeSet>[] result = Arrays.copyOf(consumers, consumers.length + 1);
+        result[consumers.length] = listener;
+        changeSetListeners = result;
     }
 
+    /**
+     * Creates a snapshot of all values present in this cache.
+     *
+     * @return an immutable map from data key to value
+     */
     public Map<DataKey<?>, Object> getMap() {
-        return cache;
+        AtomicReferenceArray<Object> values = this.values;
+        ImmutableMap.Builder<DataKey<?>, Object> builder = ImmutableMap.builder();
+        for (int i = 0; i < values.length(); i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                builder.put(DataKeyRegistry.getKey(i), value);
+            }
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data;
+
+import java.util.Arrays;
+
+/**
+ * An immutable batch of data changes. A value of null means the key has been removed.
+ * <p>
+ * Applying a change set to a {@link DataCache} updates all values at once and notifies its
+ * {@linkplain DataCache#registerChangeSetListener(java.util.function.Consumer) change set listeners} a single time.
+ */
+public final class DataChangeSet {
+    private static final DataChangeSet EMPTY = new DataChangeSet(new DataKey<?>[0], new Object[0]);
+
+    private final DataKey<?>[] keys;
+    private final Object[] values;
+
+    private DataChangeSet(DataKey<?>[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public static DataChangeSet empty() {
+        return EMPTY;
+    }
+
+    public static <T> DataChangeSet of(DataKey<T> key, T value) {
+        return new DataChangeSet(new DataKey<?>[]{key}, new Object[]{value});
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    public DataKey<?> getKey(int index) {
+        return keys[index];
+    }
+
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DataChangeSet{");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(keys[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    public static class Builder {
+        private DataKey<?>[] keys = new DataKey<?>[4];
+        private Object[] values = new Object[4];
+        private int size = 0;
+
+        private Builder() {
+        }
+
+        public <T> Builder put(DataKey<T> key, T value) {
+            return putUnchecked(key, value);
+        }
+
+        /**
+         * Same as {@link #put(DataKey, Object)} for values whose type can't be checked at compile time,
+         * e.g. values received from another server.
+         */
+        public Builder putUnchecked(DataKey<?> key, Object value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public DataChangeSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new DataChangeSet(Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -27,6 +27,11 @@ public class DataKey<T> implements Serializable {
     private final String id;
     private final Scope scope;
     private final boolean bungee;
+    /**
+     * ordinal + 1 as assigned by the {@link DataKeyRegistry}, 0 if not looked up yet.
+     * Not serialized because ordinals are local to a process.
+     */
+    private transient int ordinal;
 
     private static final long serialVersionUID = 1L;
 
@@ -52,6 +57,19 @@ public class DataKey<T> implements Serializable {
         return bungee;
     }
 
+    /**
+     * Get the dense ordinal of this key. Equal keys share the same ordinal.
+     *
+     * @return the ordinal assigned by the {@link DataKeyRegistry}
+     */
+    public int getOrdinal() {
+        int ordinal = this.ordinal;
+        if (ordinal == 0) {
+            this.ordinal = ordinal = DataKeyRegistry.getOrdinal(this) + 1;
+        }
+        return ordinal - 1;
+    }
+
     @Override
     public int hashCode() {
         return id.hashCode() + scope.hashCode();
@@ -113,5 +131,19 @@ public class DataKey<T> implements Serializable {
             Preconditions.checkNotNull(bungee, "bungee");
             return new DataKey<>(id, scope, bungee);
         }
+
+        public IntDataKey buildInt() {
+            Preconditions.checkNotNull(id, "id");
+            Preconditions.checkNotNull(scope, "scope");
+            Preconditions.checkNotNull(bungee, "bungee");
+            return new IntDataKey(id, scope, bungee);
+        }
+
+        public DoubleDataKey buildDouble() {
+            Preconditions.checkNotNull(id, "id");
+            Preconditions.checkNotNull(scope, "scope");
+            Preconditions.checkNotNull(bungee, "bungee");
+            return new DoubleDataKey(id, scope, bungee);
+        }
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * BungeeTabListPlus - a BungeeCord plugin to customize the tablist
+ *
+ * Copyright (C) 2014 - 2015 Florian Stober
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package codecrafter47.bungeetablistplus.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Process wide registry assigning a dense int ordinal to every distinct {@link DataKey}.
+ * <p>
+ * Keys are interned by {@link DataKey#equals(Object)}, so a key received from a bukkit server
+ * gets the same ordinal as the equal key constant on the proxy.
+ */
+public final class DataKeyRegistry {
+    private static final Map<DataKey<?>, Integer> ordinals = new ConcurrentHashMap<>();
+    private static volatile AtomicReferenceArray<DataKey<?>> keys = new AtomicReferenceArray<>(64);
+    private static int size = 0;
+
+    private DataKeyRegistry() {
+    }
+
+    /**
+     * Get the ordinal of a data key, registering the key if it is not known yet.
+     *
+     * @param key the data key
+     * @return the ordinal of the key
+     */
+    public static int getOrdinal(DataKey<?> key) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return register(key);
+    }
+
+    private static synchronized int register(DataKey<?> key) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int index = size;
+        AtomicReferenceArray<DataKey<?>> keys = DataKeyRegistry.keys;
+        if (index == keys.length()) {
+            AtomicReferenceArray<DataKey<?>> newKeys = new AtomicReferenceArray<>(keys.length() * 2);
+            for (int i = 0; i < index; i++) {
+                newKeys.set(i, keys.get(i));
+            }
+            DataKeyRegistry.keys = keys = newKeys;
+        }
+        keys.set(index, key);
+        size = index + 1;
+        ordinals.put(key, index);
+        return index;
+    }
+
+    /**
+     * Get the data key registered with the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the data key
+     */
+    public static DataKey<?> getKey(int ordinal) {
+        return keys.get(ordinal);
+    }
+
+    /**
+     * @return the number of registered data keys
+     */
+    public static synchronized int size() {
+        return size;
+    }
+}
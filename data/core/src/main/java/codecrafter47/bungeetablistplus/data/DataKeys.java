@@ -21,14 +21,14 @@ package codecrafter47.bungeetablistplus.data;
 
 public class DataKeys {
     public final static DataKey<String> ClientVersion = DataKey.builder().bungee().player().id("minecraft:clientversion").build();
-    public final static DataKey<Double> Health = DataKey.builder().bukkit().player().id("minecraft:health").build();
-    public final static DataKey<Double> MaxHealth = DataKey.builder().bukkit().player().id("minecraft:maxhealth").build();
-    public final static DataKey<Integer> Level = DataKey.builder().bukkit().player().id("minecraft:xplevel").build();
+    public final static DoubleDataKey Health = DataKey.builder().bukkit().player().id("minecraft:health").buildDouble();
+    public final static DoubleDataKey MaxHealth = DataKey.builder().bukkit().player().id("minecraft:maxhealth").buildDouble();
+    public final static IntDataKey Level = DataKey.builder().bukkit().player().id("minecraft:xplevel").buildInt();
     public final static DataKey<Float> XP = DataKey.builder().bukkit().player().id("minecraft:xp").build();
-    public final static DataKey<Integer> TotalXP = DataKey.builder().bukkit().player().id("minecraft:totalxp").build();
-    public final static DataKey<Double> PosX = DataKey.builder().bukkit().player().id("minecraft:posx").build();
-    public final static DataKey<Double> PosY = DataKey.builder().bukkit().player().id("minecraft:posy").build();
-    public final static DataKey<Double> PosZ = DataKey.builder().bukkit().player().id("minecraft:posz").build();
+    public final static IntDataKey TotalXP = DataKey.builder().bukkit().player().id("minecraft:totalxp").buildInt();
+    public final static DoubleDataKey PosX = DataKey.builder().bukkit().player().id("minecraft:posx").buildDouble();
+    public final static DoubleDataKey PosY = DataKey.builder().bukkit().player().id("minecraft:posy").buildDouble();
+    public final static DoubleDataKey PosZ = DataKey.builder().bukkit().player().id("minecraft:posz").buildDouble();
     public final static DataKey<String> Team = DataKey.builder().bukkit().player().id("minecraft:team").build();
     public final static DataKey<String> PlayerListName = DataKey.builder().bukkit().player().id("bukkit:playerlistname").build();
     public final static DataKey<String> DisplayName = DataKey.builder().bukkit().player().id("bukkit:displayname").build();
@@ -36,25 +36,25 @@ public class DataKeys {
     public final static DataKey<String> Vault_Prefix = DataKey.builder().bukkit().player().id("vault:prefix").build();
     public final static DataKey<String> Vault_Suffix = DataKey.builder().bukkit().player().id("vault:suffix").build();
     public final static DataKey<String> Vault_PermissionGroup = DataKey.builder().bukkit().player().id("vault:permgroup").build();
-    public final static DataKey<Integer> Vault_PermissionGroupRank = DataKey.builder().bukkit().player().id("vault:permgrouprank").build();
-    public final static DataKey<Double> Vault_Balance = DataKey.builder().bukkit().player().id("vault:balance").build();
+    public final static IntDataKey Vault_PermissionGroupRank = DataKey.builder().bukkit().player().id("vault:permgrouprank").buildInt();
+    public final static DoubleDataKey Vault_Balance = DataKey.builder().bukkit().player().id("vault:balance").buildDouble();
     public final static DataKey<String> PermissionsEx_Prefix = DataKey.builder().bukkit().player().id("permissionsex:prefix").build();
     public final static DataKey<String> PermissionsEx_Suffix = DataKey.builder().bukkit().player().id("permissionsex:suffix").build();
     public final static DataKey<String> PermissionsEx_PermissionGroup = DataKey.builder().bukkit().player().id("permissionsex:permgroup").build();
-    public final static DataKey<Integer> PermissionsEx_GroupRank = DataKey.builder().bukkit().player().id("permissionsex:permgroup.rank").build();
+    public final static IntDataKey PermissionsEx_GroupRank = DataKey.builder().bukkit().player().id("permissionsex:permgroup.rank").buildInt();
     public final static DataKey<Boolean> VanishNoPacket_IsVanished = DataKey.builder().bukkit().player().id("vanishnopacket:isvanished").build();
-    public final static DataKey<Integer> PlayerPoints_Points = DataKey.builder().bukkit().player().id("playerpoints:points").build();
+    public final static IntDataKey PlayerPoints_Points = DataKey.builder().bukkit().player().id("playerpoints:points").buildInt();
     public final static DataKey<String> Factions_FactionName = DataKey.builder().bukkit().player().id("factions:factionname").build();
-    public final static DataKey<Integer> Factions_FactionMembers = DataKey.builder().bukkit().player().id("factions:members").build();
-    public final static DataKey<Integer> Factions_OnlineFactionMembers = DataKey.builder().bukkit().player().id("factions:onlinemembers").build();
+    public final static IntDataKey Factions_FactionMembers = DataKey.builder().bukkit().player().id("factions:members").buildInt();
+    public final static IntDataKey Factions_OnlineFactionMembers = DataKey.builder().bukkit().player().id("factions:onlinemembers").buildInt();
     public final static DataKey<String> Factions_FactionsWhere = DataKey.builder().bukkit().player().id("factions:where").build();
     public final static DataKey<String> Factions_FactionsRank = DataKey.builder().bukkit().player().id("factions:rank").build();
-    public final static DataKey<Integer> Factions_FactionPower = DataKey.builder().bukkit().player().id("factions:factionpower").build();
-    public final static DataKey<Integer> Factions_PlayerPower = DataKey.builder().bukkit().player().id("factions:factionpower").build();
+    public final static IntDataKey Factions_FactionPower = DataKey.builder().bukkit().player().id("factions:factionpower").buildInt();
+    public final static IntDataKey Factions_PlayerPower = DataKey.builder().bukkit().player().id("factions:factionpower").buildInt();
     public final static DataKey<Boolean> SuperVanish_IsVanished = DataKey.builder().bukkit().player().id("supervanish:isvanished").build();
     public final static DataKey<String> SimpleClans_ClanName = DataKey.builder().bukkit().player().id("simpleclans:clanname").build();
-    public final static DataKey<Integer> SimpleClans_ClanMembers = DataKey.builder().bukkit().player().id("simpleclans:clanmembers").build();
-    public final static DataKey<Integer> SimpleClans_OnlineClanMembers = DataKey.builder().bukkit().player().id("simpleclans:onlineclanmembers").build();
+    public final static IntDataKey SimpleClans_ClanMembers = DataKey.builder().bukkit().player().id("simpleclans:clanmembers").buildInt();
+    public final static IntDataKey SimpleClans_OnlineClanMembers = DataKey.builder().bukkit().player().id("simpleclans:onlineclanmembers").buildInt();
     public final static DataKey<String> SimpleClans_ClanTag = DataKey.builder().bukkit().player().id("simpleclans:clantag").build();
     public final static DataKey<String> SimpleClans_ClanTagLabel = DataKey.builder().bukkit().player().id("simpleclans:clantaglabel").build();
     public final static DataKey<String> SimpleClans_ClanColorTag = DataKey.builder().bukkit().player().id("simpleclans:clancolortag").build();
@@ -64,7 +64,22 @@ public class DataKeys {
 
     public final static DataKey<String> Vault_CurrencyNameSingular = DataKey.builder().bukkit().server().id("vault:currencynamesingular").build();
     public final static DataKey<String> Vault_CurrencyNamePlural = DataKey.builder().bukkit().server().id("vault:currencynameplural").build();
-    public final static DataKey<Double> TPS = DataKey.builder().bukkit().server().id("minecraft:tps").build();
+    public final static DoubleDataKey TPS = DataKey.builder().bukkit().server().id("minecraft:tps").buildDouble();
+    public final static DoubleDataKey MSPT_Mean_5s = DataKey.builder().bukkit().server().id("minecraft:mspt_mean_5s").buildDouble();
+    public final static DoubleDataKey MSPT_P50_5s = DataKey.builder().bukkit().server().id("minecraft:mspt_p50_5s").buildDouble();
+    public final static DoubleDataKey MSPT_P95_5s = DataKey.builder().bukkit().server().id("minecraft:mspt_p95_5s").buildDouble();
+    public final static DoubleDataKey MSPT_P99_5s = DataKey.builder().bukkit().server().id("minecraft:mspt_p99_5s").buildDouble();
+    public final static DoubleDataKey MSPT_Max_5s = DataKey.builder().bukkit().server().id("minecraft:mspt_max_5s").buildDouble();
+    public final static DoubleDataKey MSPT_Mean_1m = DataKey.builder().bukkit().server().id("minecraft:mspt_mean_1m").buildDouble();
+    public final static DoubleDataKey MSPT_P50_1m = DataKey.builder().bukkit().server().id("minecraft:mspt_p50_1m").buildDouble();
+    public final static DoubleDataKey MSPT_P95_1m = DataKey.builder().bukkit().server().id("minecraft:mspt_p95_1m").buildDouble();
+    public final static DoubleDataKey MSPT_P99_1m = DataKey.builder().bukkit().server().id("minecraft:mspt_p99_1m").buildDouble();
+    public final static DoubleDataKey MSPT_Max_1m = DataKey.builder().bukkit().server().id("minecraft:mspt_max_1m").buildDouble();
+    public final static DoubleDataKey MSPT_Mean_5m = DataKey.builder().bukkit().server().id("minecraft:mspt_mean_5m").buildDouble();
+    public final static DoubleDataKey MSPT_P50_5m = DataKey.builder().bukkit().server().id("minecraft:mspt_p50_5m").buildDouble();
+    public final static DoubleDataKey MSPT_P95_5m = DataKey.builder().bukkit().server().id("minecraft:mspt_p95_5m").buildDouble();
+    public final static DoubleDataKey MSPT_P99_5m = DataKey.builder().bukkit().server().id("minecraft:mspt_p99_5m").buildDouble();
+    public final static DoubleDataKey MSPT_Max_5m = DataKey.builder().bukkit().server().id("minecraft:mspt_max_5m").buildDouble();
     public final static DataKey<String> MinecraftVersion = DataKey.builder().bukkit().server().id("minecraft:version").build();
     public final static DataKey<String> ServerModName = DataKey.builder().bukkit().server().id("bukkit:name").build();
     public final static DataKey<String> ServerModVersion = DataKey.builder().bukkit().server().id("bukkit:version").build();
@@ -73,10 +88,10 @@ public class DataKeys {
     public final static DataKey<String> BungeePerms_Prefix = DataKey.builder().bungee().player().id("bungeeperms:prefix").build();
     public final static DataKey<String> BungeePerms_DisplayPrefix = DataKey.builder().bungee().player().id("bungeeperms:displayprefix").build();
     public final static DataKey<String> BungeePerms_Suffix = DataKey.builder().bungee().player().id("bungeeperms:suffix").build();
-    public final static DataKey<Integer> BungeePerms_Rank = DataKey.builder().bungee().player().id("bungeeperms:rank").build();
+    public final static IntDataKey BungeePerms_Rank = DataKey.builder().bungee().player().id("bungeeperms:rank").buildInt();
 
     public final static DataKey<String> BungeeCord_PrimaryGroup = DataKey.builder().bungee().player().id("bungeecord:group").build();
-    public final static DataKey<Integer> BungeeCord_Rank = DataKey.builder().bungee().player().id("bungeecord:rank").build();
+    public final static IntDataKey BungeeCord_Rank = DataKey.builder().bungee().player().id("bungeecord:rank").buildInt();
 
     public static PermissionDataKey permission(String permission) {
         return new PermissionDataKey(permission);
@@ -17,26 +17,37 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package codecrafter47.bungeetablistplus.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class JoinedDataAccess<B> implements DataAccess<B> {
-    private final Collection<DataAccess<B>> accessors;
+    private final DataAccess<B>[] accessors;
+
+    /**
+     * The accessors which may provide a key, indexed by {@link DataKey#getOrdinal()}.
+     * Usually this is a single accessor, so a lookup doesn't probe the other accessors.
+     */
+    private volatile AtomicReferenceArray<DataAccess<B>[]> routes = new AtomicReferenceArray<>(0);
 
     public static <B> JoinedDataAccess<B> of(DataAccess<B>... accessors) {
         return new JoinedDataAccess<>(Arrays.asList(accessors));
     }
 
+    @SuppressWarnings("unchecked")
     public JoinedDataAccess(Collection<DataAccess<B>> accessors) {
-        this.accessors = accessors;
+        this.accessors = accessors.toArray(new DataAccess[accessors.size()]);
     }
 
     @Override
     public <V> Optional<V> getValue(DataKey<V> key, B context) {
-        for (DataAccess<B> accessor : accessors) {
+        for (DataAccess<B> accessor : getRoute(key)) {
             Optional<V> value = accessor.getValue(key, context);
             if (value.isPresent()) return value;
         }
@@ -45,10 +56,56 @@ public class JoinedDataAccess<B> implements DataAccess<B> {
 
     @Override
     public <V> V getRawValue(DataKey<V> key, B context) {
-        for (DataAccess<B> accessor : accessors) {
+        for (DataAccess<B> accessor : getRoute(key)) {
             V value = accessor.getRawValue(key, context);
             if (value != null) return value;
         }
         return null;
     }
+
+    @Override
+    public boolean provides(DataKey<?> key) {
+        return getRoute(key).length != 0;
+    }
+
+    @Override
+    public boolean isThreadSafe(DataKey<?> key) {
+        for (DataAccess<B> accessor : getRoute(key)) {
+            if (!accessor.isThreadSafe(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private DataAccess<B>[] getRoute(DataKey<?> key) {
+        int ordinal = key.getOrdinal();
+        AtomicReferenceArray<DataAccess<B>[]> routes = this.routes;
+        DataAccess<B>[] route = ordinal < routes.length() ? routes.get(ordinal) : null;
+        if (route == null) {
+            route = compileRoute(key, ordinal);
+        }
+        return route;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized DataAccess<B>[] compileRoute(DataKey<?> key, int ordinal) {
+        List<DataAccess<B>> candidates = new ArrayList<>(1);
+        for (DataAccess<B> accessor : accessors) {
+            if (accessor.provides(key)) {
+                candidates.add(accessor);
+            }
+        }
+        DataAccess<B>[] route = candidates.toArray(new DataAccess[candidates.size()]);
+        AtomicReferenceArray<DataAccess<B>[]> routes = this.routes;
+        if (ordinal >= routes.length()) {
+            AtomicReferenceArray<DataAccess<B>[]> newRoutes = new AtomicReferenceArray<>(Math.max(ordinal + 1, DataKeyRegistry.size()));
+            for (int i = 0; i < routes.length(); i++) {
+                newRoutes.set(i, routes.get(i));
+            }
+            this.routes = routes = newRoutes;
+        }
+        routes.set(ordinal, route);
+        return route;
+    }
 }